@@ -3,6 +3,7 @@ package com.edavalos.acacia;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -18,12 +19,65 @@ public final class Acacia {
 
     private static final Interpreter interpreter = new Interpreter();
 
+    // Lets syntax tree nodes specialize themselves on the values they see, turned off with -Dacacia.specialize=false
+    static final boolean specialize = Boolean.parseBoolean(System.getProperty("acacia.specialize", "true"));
+
+    // Compiles programs into a tree of closures before running them, instead of walking the syntax tree, with -Dacacia.compile=true
+    static final boolean compile = Boolean.parseBoolean(System.getProperty("acacia.compile", "false"));
+
+    // How many calls it takes for a function to get compiled to JVM bytecode, never with -Dacacia.hotCalls=0
+    static final int hotCalls = Integer.parseInt(System.getProperty("acacia.hotCalls", "1000"));
+
+    // How many function calls deep a program can go before it's stopped, no limit with -Dacacia.maxDepth=0
+    static final int maxDepth = Integer.parseInt(System.getProperty("acacia.maxDepth", "0"));
+
+    // Runs programs on a thread with this many megabytes of stack, so deep recursion doesn't need JVM flags
+    static final int stackSize = Integer.parseInt(System.getProperty("acacia.stack", "0"));
+
+    // Pure functions remember this many of their results with -Dacacia.memo=<size>, and report how that went
+    // with -Dacacia.memoStats=true
+    static final int memoSize = Integer.parseInt(System.getProperty("acacia.memo", "0"));
+    static final boolean memoStats = Boolean.parseBoolean(System.getProperty("acacia.memoStats", "false"));
+
+    // Runs bulk numeric natives with SIMD when the JVM has jdk.incubator.vector, always with plain loops with
+    // -Dacacia.vector=false
+    static final boolean vector = Boolean.parseBoolean(System.getProperty("acacia.vector", "true"));
+
+    // One string per char, so taking characters out of a string doesn't make a new one each time. Latin-1 is filled
+    // up front and everything else in the BMP the first time it's seen
+    private static final String[] characters = new String[Character.MAX_VALUE + 1];
+    static {
+        for (char c = 0; c < 256; c++) characters[c] = String.valueOf(c);
+    }
+
     static boolean replMode;
     static String[] fileLines;
     static boolean hadError = false;
     static boolean hadRuntimeError = false;
 
     public static void main(String[] args) throws IOException {
+        if (stackSize <= 0) {
+            start(args);
+            return;
+        }
+
+        Thread thread = new Thread(null, () -> {
+            try {
+                start(args);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }, "acacia", stackSize * 1024L * 1024L);
+
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void start(String[] args) throws IOException {
         if (args.length > 2) {
             System.out.println("[Usage]: acacia [file.aci] [args]");
             System.exit(64);
@@ -35,6 +89,7 @@ public final class Acacia {
 
             replMode = false;
             runFile(args[0]);
+            if (memoStats) Memo.report();
 
         } else { // no script specified, enter interactive runtime
             replMode = true;
@@ -104,7 +159,22 @@ public final class Acacia {
         // Stop if there was a resolution error
         if (hadError) return;
 
-        interpreter.interpret(statements);
+        Optimizer optimizer = new Optimizer(interpreter);
+        statements = optimizer.optimize(statements);
+
+        TypeInferrer inferrer = new TypeInferrer();
+        inferrer.infer(statements);
+
+        if (memoSize > 0) {
+            PurityAnalyzer analyzer = new PurityAnalyzer(interpreter, memoSize);
+            analyzer.analyze(statements);
+        }
+
+        if (compile) {
+            Compiler compiler = new Compiler(interpreter);
+            interpreter.interpret(compiler.compile(statements));
+        }
+        else interpreter.interpret(statements);
     }
 
 
@@ -155,6 +225,17 @@ public final class Acacia {
         return new String(new char[count]).replace("\0", str);
     }
 
+    // Gets the one-character string for a char, which is always the same string for the same char
+    static String character(char c) {
+        String s = characters[c];
+        if (s == null) {
+            // Two threads may both make it, but either string is as good as the other
+            s = String.valueOf(c);
+            characters[c] = s;
+        }
+        return s;
+    }
+
     // Creates a string representation of any Acacia data type
     public static String stringify(Object object) {
         // If object is nil, string returned should be 'nil' instead of 'null'
@@ -0,0 +1,160 @@
+package com.edavalos.acacia;
+
+import java.util.Arrays;
+
+// A grid of numbers with any number of dimensions, all kept in one flat block of doubles. Indexing it with fewer
+// indices than it has dimensions gives back a view of that row, which shares the same block
+class AcaciaArray implements AcaciaIterable {
+    private final double[] data;
+    private final int[] shape;
+    private final int[] strides;
+
+    // Where this view starts in the block, and the first dimension of the shape it covers
+    private final int offset;
+    private final int dimension;
+
+    AcaciaArray(int[] shape, double value) {
+        this.shape = shape;
+        this.strides = new int[shape.length];
+
+        int size = 1;
+        for (int i = shape.length - 1; i >= 0; i--) {
+            strides[i] = size;
+            size *= shape[i];
+        }
+
+        this.data = new double[size];
+        if (value != 0.0) Arrays.fill(data, value);
+
+        this.offset = 0;
+        this.dimension = 0;
+    }
+
+    private AcaciaArray(AcaciaArray array, int offset) {
+        this.data = array.data;
+        this.shape = array.shape;
+        this.strides = array.strides;
+        this.offset = offset;
+        this.dimension = array.dimension + 1;
+    }
+
+    // Makes an array of the same shape as another one (or a view of one), holding the given numbers
+    private AcaciaArray(AcaciaArray like, double[] data) {
+        this.data = data;
+        this.shape = Arrays.copyOfRange(like.shape, like.dimension, like.shape.length);
+        this.strides = Arrays.copyOfRange(like.strides, like.dimension, like.strides.length);
+        this.offset = 0;
+        this.dimension = 0;
+    }
+
+    AcaciaArray withData(double[] data) {
+        return new AcaciaArray(this, data);
+    }
+
+    // How many dimensions are left to index
+    int rank() {
+        return shape.length - dimension;
+    }
+
+    // The size of each dimension that's left to index
+    int[] shape() {
+        return Arrays.copyOfRange(shape, dimension, shape.length);
+    }
+
+    @Override
+    public int cSize() {
+        return shape[dimension];
+    }
+
+    // The block of doubles this is a part of, where it starts in it, and how many numbers it covers in total
+    double[] block() {
+        return data;
+    }
+
+    int start() {
+        return offset;
+    }
+
+    int total() {
+        return dimension == 0 ? data.length : shape[dimension] * strides[dimension];
+    }
+
+    // Gets the number at a given index, or the row there if this has more than one dimension left
+    @Override
+    public Object get(int index, Token token) {
+        int cell = cell(offset, 0, index, token);
+        if (rank() == 1) return data[cell];
+        return new AcaciaArray(this, cell);
+    }
+
+    void put(int index, Object value, Token token) {
+        store(cell(checkedOrigin(1, token), 0, index, token), value, token);
+    }
+
+    double inc(int index, Token increment) {
+        return increment(cell(checkedOrigin(1, increment), 0, index, increment), increment);
+    }
+
+
+    /* --- Cell methods, which let a full set of indices go straight to a number without making any views --- */
+
+    // Gives back where this view starts, making sure there's an index for each of its dimensions
+    int checkedOrigin(int indices, Token token) {
+        if (indices != rank()) {
+            throw new RuntimeError(token, "Array edits need an index for each of its " + rank() + " dimensions.");
+        }
+        return offset;
+    }
+
+    // Moves from a cell along one of this view's dimensions, wrapping indices around like sets do
+    int cell(int cell, int dimension, int index, Token token) {
+        int axis = this.dimension + dimension;
+        int length = shape[axis];
+
+        if (index < 0 || index >= length) {
+            index = index >= 0 ? index % length : index + length;
+            if (index < 0) {
+                throw new RuntimeError(token, "Index out of bounds for an array of length " + length + ".");
+            }
+        }
+        return cell + index * strides[axis];
+    }
+
+    void store(int cell, Object value, Token token) {
+        if (!(value instanceof Double)) throw new RuntimeError(token, "Arrays can only hold numbers.");
+        data[cell] = (double) value;
+    }
+
+    double increment(int cell, Token increment) {
+        double priorVal = data[cell];
+        double newVal = priorVal + switch (increment.type) {
+            case DOUBLE_PLUS -> 1.0;
+            case DOUBLE_MINUS -> -1.0;
+            case TRIPLE_PLUS -> priorVal;
+            case TRIPLE_MINUS -> -(priorVal / 2);
+            default -> 0.0;
+        };
+
+        data[cell] = newVal;
+        return newVal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        append(text, offset, dimension);
+        return text.toString();
+    }
+
+    private void append(StringBuilder text, int cell, int axis) {
+        text.append("[");
+        for (int i = 0; i < shape[axis]; i++) {
+            if (i > 0) text.append(", ");
+
+            int position = cell + i * strides[axis];
+            if (axis == shape.length - 1) text.append(Acacia.stringify(data[position]));
+            else append(text, position, axis + 1);
+        }
+        text.append("]");
+    }
+}
@@ -0,0 +1,197 @@
+package com.edavalos.acacia;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// A fixed number of bytes kept outside the Java heap, one byte each instead of a boxed number each like a set. Slices
+// share their bytes with what they were sliced from, so a change to either shows up in both
+class AcaciaBytes implements AcaciaIterable {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Always starts at 0 and ends at its limit, anything that moves its position works on a duplicate
+    private final ByteBuffer buffer;
+
+    AcaciaBytes(int length) {
+        this(ByteBuffer.allocateDirect(length));
+    }
+
+    private AcaciaBytes(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    // Copies bytes from anywhere into a new buffer of exactly their length
+    static AcaciaBytes of(ByteBuffer bytes) {
+        AcaciaBytes copy = new AcaciaBytes(bytes.remaining());
+        copy.buffer().put(bytes.duplicate());
+        return copy;
+    }
+
+    static AcaciaBytes of(byte[] bytes) {
+        return of(ByteBuffer.wrap(bytes));
+    }
+
+    static AcaciaBytes fromHex(String hex, Token location) {
+        if (hex.length() % 2 != 0) throw new RuntimeError(location, "Hex string must have an even length.");
+
+        AcaciaBytes bytes = new AcaciaBytes(hex.length() / 2);
+        for (int i = 0; i < hex.length(); i += 2) {
+            int high = Character.digit(hex.charAt(i), 16);
+            int low = Character.digit(hex.charAt(i + 1), 16);
+            if (high == -1 || low == -1) {
+                throw new RuntimeError(location, "Invalid hex digit in '" + hex.substring(i, i + 2) + "'.");
+            }
+            bytes.buffer.put(i / 2, (byte) ((high << 4) | low));
+        }
+        return bytes;
+    }
+
+    static AcaciaBytes fromBase64(String base64, Token location) {
+        try {
+            return of(Base64.getDecoder().decode(base64));
+        } catch (IllegalArgumentException exception) {
+            throw new RuntimeError(location, "Invalid base64 string (" + exception.getMessage() + ").");
+        }
+    }
+
+    // Gets the bytes for handing straight to a channel, which can move its position without moving this one's
+    ByteBuffer buffer() {
+        return buffer.duplicate();
+    }
+
+    // Gets a part of these bytes that shares them instead of copying them, and reads numbers in the same order
+    AcaciaBytes slice(int from, int to) {
+        ByteBuffer part = buffer.duplicate();
+        part.position(from).limit(to);
+        return new AcaciaBytes(part.slice().order(buffer.order()));
+    }
+
+    @Override
+    public int cSize() {
+        return buffer.limit();
+    }
+
+    @Override
+    public Object get(int index, Token location) {
+        int length = cSize();
+        if (index < -length || index >= length) {
+            throw new RuntimeError(location, "Index out of bounds for bytes of length " + length + ".");
+        }
+        return (double) (buffer.get(index < 0 ? index + length : index) & 0xFF);
+    }
+
+    // Methods are made when they're looked up, since bytes are sliced far more often than their methods are used
+    Object findMethod(Token name) {
+        return switch (name.lexeme) {
+            case "byteAt" -> method(name, 1, (arguments, at) -> {
+                return (double) (buffer.get(offset(arguments[0], 1, at)) & 0xFF);
+            });
+            case "intAt" -> method(name, 1, (arguments, at) -> {
+                return (double) buffer.getInt(offset(arguments[0], Integer.BYTES, at));
+            });
+            case "doubleAt" -> method(name, 1, (arguments, at) -> {
+                return buffer.getDouble(offset(arguments[0], Double.BYTES, at));
+            });
+            case "stringAt" -> method(name, 2, (arguments, at) -> {
+                int length = count(arguments[1], at);
+                int offset = offset(arguments[0], length, at);
+                return decode(slice(offset, offset + length));
+            });
+            case "putByte" -> method(name, 2, (arguments, at) -> {
+                buffer.put(offset(arguments[0], 1, at), (byte) number(arguments[1], at));
+                return null;
+            });
+            case "putInt" -> method(name, 2, (arguments, at) -> {
+                buffer.putInt(offset(arguments[0], Integer.BYTES, at), (int) number(arguments[1], at));
+                return null;
+            });
+            case "putDouble" -> method(name, 2, (arguments, at) -> {
+                buffer.putDouble(offset(arguments[0], Double.BYTES, at), number(arguments[1], at));
+                return null;
+            });
+            case "putString" -> method(name, 2, (arguments, at) -> {
+                if (!(arguments[1] instanceof String)) throw new RuntimeError(at, "Expected string as argument.");
+                byte[] encoded = ((String) arguments[1]).getBytes(StandardCharsets.UTF_8);
+
+                ByteBuffer into = buffer();
+                into.position(offset(arguments[0], encoded.length, at));
+                into.put(encoded);
+                return (double) encoded.length;
+            });
+            case "order" -> method(name, 1, (arguments, at) -> {
+                if ("big".equals(arguments[0])) buffer.order(ByteOrder.BIG_ENDIAN);
+                else if ("little".equals(arguments[0])) buffer.order(ByteOrder.LITTLE_ENDIAN);
+                else throw new RuntimeError(at, "Byte order must be either \"big\" or \"little\".");
+                return null;
+            });
+            case "toHex" -> method(name, 0, (arguments, at) -> toHex());
+            case "toBase64" -> method(name, 0, (arguments, at) -> {
+                return StandardCharsets.ISO_8859_1.decode(Base64.getEncoder().encode(buffer())).toString();
+            });
+            case "text" -> method(name, 0, (arguments, at) -> decode(this));
+            case "copy" -> method(name, 0, (arguments, at) -> of(buffer()));
+            default -> throw new RuntimeError(name, "Undefined bytes method '" + name.lexeme + "'.");
+        };
+    }
+
+    private static AcaciaCallable method(Token name, int arity, Natives.MethodBody body) {
+        return Natives.method("bytes", name.lexeme, arity, body);
+    }
+
+    private String toHex() {
+        char[] hex = new char[cSize() * 2];
+        for (int i = 0; i < cSize(); i++) {
+            int b = buffer.get(i) & 0xFF;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static String decode(AcaciaBytes bytes) {
+        return StandardCharsets.UTF_8.decode(bytes.buffer()).toString();
+    }
+
+    // Checks that a value fits at an offset, and turns the offset into a whole number
+    private int offset(Object offset, int width, Token location) {
+        if (!(offset instanceof Double) || (double) offset != Math.floor((double) offset)) {
+            throw new RuntimeError(location, "Offset must be a whole number.");
+        }
+
+        double at = (double) offset;
+        if (at < 0 || at + width > cSize()) {
+            throw new RuntimeError(location, "Cannot fit " + width + " bytes at offset " + Acacia.stringify(at) +
+                    " of bytes of length " + cSize() + ".");
+        }
+        return (int) at;
+    }
+
+    private static int count(Object count, Token location) {
+        if (!(count instanceof Double) || (double) count < 0 || (double) count != Math.floor((double) count)) {
+            throw new RuntimeError(location, "String length must be a whole number that isn't negative.");
+        }
+        return (int) Math.min((double) count, Integer.MAX_VALUE);
+    }
+
+    private static double number(Object value, Token location) {
+        if (!(value instanceof Double)) throw new RuntimeError(location, "Expected number as argument.");
+        return (double) value;
+    }
+
+    // Bytes are equal when they hold the same values, wherever they're kept
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AcaciaBytes && buffer.equals(((AcaciaBytes) other).buffer);
+    }
+
+    @Override
+    public int hashCode() {
+        return buffer.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "<bytes of length " + cSize() + ">";
+    }
+}
@@ -1,7 +1,5 @@
 package com.edavalos.acacia;
 
-import java.util.List;
-
 /**
  * Implementing AcaciaCallable allows an object to be called like a function, object constructor or closure
  */
@@ -15,11 +13,11 @@ interface AcaciaCallable {
     /**
      * Invokes this callable object. i.e. tells it to evaluate itself and provide a value.
      * @param interpreter The instance where the call is being interpreted.
-     * @param arguments The arguments to pass to it.
+     * @param arguments The arguments to pass to it, exactly as many as it takes.
      * @param location The token where it was called, for error handling.
      * @return The value evaluated by the call.
      */
-    Object call(Interpreter interpreter, List<Object> arguments, Token location);
+    Object call(Interpreter interpreter, Object[] arguments, Token location);
 
     /**
      * Gets this callable's identifier. Usually same as the variable name in the environment.
@@ -1,29 +1,33 @@
 package com.edavalos.acacia;
 
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 class AcaciaClass implements AcaciaCallable {
     final String name;
     final AcaciaClass superclass;
+
+    // Every method instances of this class have, inherited ones included, with overrides already applied
     private final Map<String, AcaciaFunction> methods;
+    private final AcaciaFunction initializer;
+    private final int arity;
 
     AcaciaClass(String name, AcaciaClass superclass, Map<String, AcaciaFunction> methods) {
         this.name = name;
         this.superclass = superclass;
-        this.methods = methods;
-    }
 
-    AcaciaFunction findMethod(String name) {
-        if (methods.containsKey(name)) {
-            return methods.get(name);
-        }
+        Map<String, AcaciaFunction> table = new HashMap<>();
+        if (superclass != null) table.putAll(superclass.methods);
+        table.putAll(methods);
+        this.methods = Collections.unmodifiableMap(table);
 
-        if (superclass != null) {
-            return superclass.findMethod(name);
-        }
+        this.initializer = table.get("init");
+        this.arity = initializer == null ? 0 : initializer.arity();
+    }
 
-        return null;
+    AcaciaFunction findMethod(String name) {
+        return methods.get(name);
     }
 
     @Override
@@ -33,15 +37,12 @@ class AcaciaClass implements AcaciaCallable {
 
     @Override
     public int arity() {
-        AcaciaFunction initializer = findMethod("init");
-        if (initializer == null) return 0;
-        else return initializer.arity();
+        return arity;
     }
 
     @Override
-    public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+    public Object call(Interpreter interpreter, Object[] arguments, Token location) {
         AcaciaInstance instance = new AcaciaInstance(this);
-        AcaciaFunction initializer = findMethod("init");
         if (initializer != null) {
             initializer.bind(instance).call(interpreter, arguments, location);
         }
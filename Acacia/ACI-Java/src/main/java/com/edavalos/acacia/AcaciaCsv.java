@@ -0,0 +1,259 @@
+package com.edavalos.acacia;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The rows of a CSV file as sets, parsed a buffer at a time as they're asked for. Cells are strings unless their
+// column was asked for as numbers, and only the columns asked for are ever made into anything. Columns are asked for
+// by their index, or by their name in the first row, which is then left out. Fields can be quoted, with "" standing
+// for a quote inside of them, and rows can end with either \n or \r\n. Empty lines are skipped
+class AcaciaCsv implements AcaciaIterator {
+    // Where the parser is within a row
+    private enum State {
+        CELL_START,    // nothing of the current cell has been read yet
+        UNQUOTED,      // reading a cell that didn't start with a quote
+        QUOTED,        // inside the quotes of a quoted cell
+        QUOTE          // just read a quote inside a quoted cell, which is either an escaped quote or the closing one
+    }
+
+    private final FileText text;
+
+    // For each of the file's columns, where it goes in a row or -1 to leave it out. Null to keep every column
+    private int[] slots = null;
+    private int width = 0;
+    private boolean[] numeric = new boolean[0];
+
+    private final StringBuilder cell = new StringBuilder();
+    private List<Object> upcoming = null;
+    private boolean skipLineFeed = false;
+    private int rowNumber = 0;
+
+    // Takes in the columns to keep and the columns that are numbers, as lists of indices or names (or null)
+    AcaciaCsv(String path, List<Object> columns, List<Object> numbers, Token location) {
+        this.text = new FileText(path, location);
+
+        try {
+            Map<String, Integer> header = null;
+            if (named(columns) || named(numbers)) {
+                header = new HashMap<>();
+                List<Object> names = hasNext(location) ? upcoming : List.of();
+                upcoming = null;
+
+                for (int i = names.size() - 1; i >= 0; i--) {
+                    header.put((String) names.get(i), i);
+                }
+            }
+
+            if (columns != null) {
+                int[] kept = indices(columns, header, location);
+                slots = new int[Arrays.stream(kept).max().orElse(-1) + 1];
+                Arrays.fill(slots, -1);
+
+                for (int slot = 0; slot < kept.length; slot++) {
+                    if (slots[kept[slot]] != -1) {
+                        throw new RuntimeError(location, "Column " + columns.get(slot) + " was asked for more " +
+                                "than once.");
+                    }
+                    slots[kept[slot]] = slot;
+                }
+                width = kept.length;
+            }
+
+            if (numbers != null) {
+                int[] converted = indices(numbers, header, location);
+                numeric = new boolean[Arrays.stream(converted).max().orElse(-1) + 1];
+                for (int column : converted) {
+                    numeric[column] = true;
+                }
+            }
+        } catch (RuntimeError error) {
+            text.close();
+            throw error;
+        }
+    }
+
+    private static boolean named(List<Object> columns) {
+        return columns != null && columns.stream().anyMatch(column -> column instanceof String);
+    }
+
+    // Turns columns given by name or index into indices, where names are looked up in the header
+    private int[] indices(List<Object> columns, Map<String, Integer> header, Token location) {
+        int[] indices = new int[columns.size()];
+        for (int i = 0; i < indices.length; i++) {
+            Object column = columns.get(i);
+            if (column instanceof String) {
+                Integer index = header.get(column);
+                if (index == null) {
+                    throw new RuntimeError(location, "No column named '" + column + "' in file '" + text.path +
+                            "'.");
+                }
+                indices[i] = index;
+            } else {
+                indices[i] = (int) (double) column;
+            }
+        }
+        return indices;
+    }
+
+    @Override
+    public boolean hasNext(Token location) {
+        if (upcoming == null && text.isOpen()) upcoming = readRow(location);
+        return upcoming != null;
+    }
+
+    @Override
+    public Object next(Token location) {
+        if (!hasNext(location)) throw new RuntimeError(location, "No more rows in file '" + text.path + "'.");
+
+        AcaciaSet row = new AcaciaSet(upcoming);
+        upcoming = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        text.close();
+    }
+
+    // Parses the next row that isn't empty, or gives back null once the whole file has been read
+    private List<Object> readRow(Token location) {
+        List<Object> row = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            row.add(null);
+        }
+        rowNumber++;
+
+        State state = State.CELL_START;
+        int column = 0;
+        boolean keep = keeps(0);
+        boolean started = false;
+        cell.setLength(0);
+
+        while (true) {
+            CharBuffer chars = text.chars();
+            if (!chars.hasRemaining() && !text.fill(location)) {
+                if (!started) return null;
+
+                endCell(row, column, location);
+                return row;
+            }
+
+            char[] array = chars.array();
+            int at = chars.position();
+            int end = chars.limit();
+
+            // The \n of a \r\n that ended the last row
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (array[at] == '\n') {
+                    chars.position(at + 1);
+                    continue;
+                }
+            }
+
+            switch (state) {
+                case CELL_START:
+                    if (array[at] == '"') {
+                        state = State.QUOTED;
+                        started = true;
+                        chars.position(at + 1);
+                        continue;
+                    }
+                    state = State.UNQUOTED;
+                    continue;
+
+                case UNQUOTED: {
+                    int start = at;
+                    char c = 0;
+                    while (at < end && (c = array[at]) != ',' && c != '\n' && c != '\r') at++;
+
+                    if (keep) cell.append(array, start, at - start);
+                    started |= at > start;
+                    if (at == end) {
+                        chars.position(at);
+                        continue;
+                    }
+                    chars.position(at + 1);
+
+                    if (c == ',') {
+                        endCell(row, column, location);
+                        column++;
+                        keep = keeps(column);
+                        started = true;
+                        state = State.CELL_START;
+                        continue;
+                    }
+
+                    skipLineFeed = c == '\r';
+                    if (!started) {
+                        // An empty line, which isn't a row
+                        continue;
+                    }
+                    endCell(row, column, location);
+                    return row;
+                }
+
+                case QUOTED: {
+                    int start = at;
+                    while (at < end && array[at] != '"') at++;
+
+                    if (keep) cell.append(array, start, at - start);
+                    if (at < end) {
+                        state = State.QUOTE;
+                        at++;
+                    }
+                    chars.position(at);
+                    continue;
+                }
+
+                case QUOTE:
+                    if (array[at] == '"') {
+                        if (keep) cell.append('"');
+                        state = State.QUOTED;
+                        chars.position(at + 1);
+                    } else {
+                        // Anything after the closing quote is part of the same cell, up to the next comma
+                        state = State.UNQUOTED;
+                    }
+            }
+        }
+    }
+
+    private boolean keeps(int column) {
+        return slots == null || (column < slots.length && slots[column] != -1);
+    }
+
+    // Puts the cell that was just read into its place in the row, if its column is wanted at all
+    private void endCell(List<Object> row, int column, Token location) {
+        if (!keeps(column)) return;
+
+        Object value = cell.toString();
+        cell.setLength(0);
+
+        if (column < numeric.length && numeric[column]) value = number((String) value, column, location);
+        if (slots == null) row.add(value);
+        else row.set(slots[column], value);
+    }
+
+    // Converts a cell of a numeric column, where an empty cell becomes nil
+    private Object number(String value, int column, Token location) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) return null;
+
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException exception) {
+            throw new RuntimeError(location, "Expected a number in column " + column + " of row " + rowNumber +
+                    " of file '" + text.path + "', but got '" + value + "'.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<csv rows of " + text.path + ">";
+    }
+}
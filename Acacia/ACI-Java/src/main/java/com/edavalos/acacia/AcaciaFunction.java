@@ -1,22 +1,33 @@
 package com.edavalos.acacia;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 class AcaciaFunction implements AcaciaCallable {
-    private final Stmt.Function declaration;
+    final Stmt.Function declaration;
     private final Environment closure;
     private final boolean isInitializer;
 
+    // The function's body compiled ahead of time, or null if it's walked by the interpreter
+    private final Compiler.Executor body;
+
     AcaciaFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
+        this(declaration, closure, isInitializer, null);
+    }
+
+    AcaciaFunction(Stmt.Function declaration, Environment closure, boolean isInitializer, Compiler.Executor body) {
         this.declaration = declaration;
         this.closure = closure;
         this.isInitializer = isInitializer;
+        this.body = body;
     }
 
     AcaciaFunction bind(AcaciaInstance instance) {
         Environment environment = new Environment(closure);
         environment.hardDefine("this", instance);
-        return new AcaciaFunction(declaration, environment, isInitializer);
+        return new AcaciaFunction(declaration, environment, isInitializer, body);
     }
 
     @Override
@@ -25,15 +36,82 @@ class AcaciaFunction implements AcaciaCallable {
     }
 
     @Override
-    public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+    public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+        // Generator functions don't run when called, they run bit by bit as their values are asked for
+        if (declaration.generator && !isInitializer) {
+            return new AcaciaGenerator(this, interpreter, arguments, location);
+        }
+
+        interpreter.enterCall(location);
+        try {
+            // Calls returned straight out of the function are made here, one after the other, instead of nesting
+            AcaciaFunction function = this;
+            Map<List<Object>, Memo> remembering = null;
+            Object result;
+            while (true) {
+                // Pure functions remember what they returned, including what the calls they hand off return
+                Memo memo = function.memo(arguments);
+                if (memo != null) {
+                    List<Object> key = Arrays.asList(arguments);
+                    if (memo.containsKey(key)) {
+                        memo.hits++;
+                        result = memo.get(key);
+                        break;
+                    }
+
+                    memo.misses++;
+                    if (remembering == null) remembering = new IdentityHashMap<>();
+                    remembering.put(key, memo);
+                }
+
+                try {
+                    result = function.run(interpreter, arguments);
+                    break;
+                } catch (Return tailCall) {
+                    function = tailCall.callee;
+                    arguments = tailCall.arguments;
+                    location = tailCall.location;
+                }
+            }
+
+            if (remembering != null && Memo.remembers(result)) {
+                for (Map.Entry<List<Object>, Memo> call : remembering.entrySet()) {
+                    call.getValue().put(call.getKey(), result);
+                }
+            }
+            return result;
+        } catch (StackOverflowError error) {
+            throw new RuntimeError(location, "Call stack overflowed, recursion went too deep.");
+        } finally {
+            interpreter.exitCall();
+        }
+    }
+
+    // Runs the function's body once, and gives back what it returns, unless that's a call to be made in its place
+    Object run(Interpreter interpreter, Object[] arguments) {
+        // Hot functions get compiled to JVM bytecode, which is used whenever they're called with numbers
+        if (!isInitializer && declaration.state != NodeState.GENERIC) {
+            if (declaration.state == NodeState.SPECIALIZED && (!declaration.recursive || namedAfterItself())) {
+                Object result = BytecodeCompiler.run(declaration, arguments);
+                if (result != null) return result;
+            }
+            else if (++declaration.calls == Acacia.hotCalls) {
+                BytecodeCompiler.compile(declaration);
+            }
+        }
+
         Environment innerEnvironment = new Environment(closure);
         for (int i = 0; i < declaration.params.size(); i++) {
-            innerEnvironment.define(declaration.params.get(i), arguments.get(i));
+            // The resolver already made sure no two parameters share a name
+            innerEnvironment.hardDefine(declaration.params.get(i).lexeme, arguments[i]);
         }
 
         try {
-            interpreter.executeBlock(declaration.body, innerEnvironment);
+            if (body != null) body.execute(innerEnvironment);
+            else interpreter.executeBlock(declaration.body, innerEnvironment);
         } catch (Return returnValue) {
+            if (returnValue.callee != null) throw returnValue;
+
             if (isInitializer) return closure.getAt(0, "this");
             else return returnValue.value;
         }
@@ -42,6 +120,42 @@ class AcaciaFunction implements AcaciaCallable {
         return null;
     }
 
+    // Gets the function's body as an expression to evaluate in place of calling it, or null if it isn't that small
+    Inliner.Body inlined(Interpreter interpreter) {
+        if (declaration.inlining == NodeState.UNINITIALIZED) {
+            declaration.inlined = isInitializer ? null : Inliner.inline(interpreter, declaration);
+            declaration.inlining = declaration.inlined == null ? NodeState.GENERIC : NodeState.SPECIALIZED;
+        }
+        return declaration.inlined;
+    }
+
+    // Evaluates the function's inlined body with the arguments it was called with
+    Object evaluateInlined(Inliner.Body body, Object[] arguments) {
+        return body.evaluate(arguments, closure);
+    }
+
+    // Gets the memo a call can be looked up in, if the function is pure and everything it's given can be remembered
+    private Memo memo(Object[] arguments) {
+        if (declaration.memo == null || isInitializer) return null;
+
+        for (Object argument : arguments) {
+            if (!Memo.remembers(argument)) return null;
+        }
+        if (declaration.recursive && !namedAfterItself()) return null;
+
+        return declaration.memo;
+    }
+
+    // Determines whether the function's name, as seen from inside it, still refers to it
+    private boolean namedAfterItself() {
+        try {
+            Object self = closure.get(declaration.name);
+            return self instanceof AcaciaFunction && ((AcaciaFunction) self).declaration == declaration;
+        } catch (RuntimeError error) {
+            return false;
+        }
+    }
+
     @Override
     public String name() {
         return declaration.name.lexeme;
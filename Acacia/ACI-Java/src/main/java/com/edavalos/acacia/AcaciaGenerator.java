@@ -0,0 +1,221 @@
+package com.edavalos.acacia;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// What calling a generator function gives back. Its body runs on a thread of its own, which takes turns with
+// whoever is asking it for values: the body runs until it yields, then waits until the next value is asked for.
+// Only one of the two ever runs at a time, so they can share the interpreter. Once a generator finishes, or is closed
+// by leaving a loop over it early, its thread goes back to be used by the next generator
+class AcaciaGenerator implements AcaciaIterator {
+    // The generator whose body is running on the current thread, so 'yield' knows who to hand its value to
+    private static final ThreadLocal<AcaciaGenerator> running = new ThreadLocal<>();
+
+    // Threads for generators' bodies, which only stick around while there are generators to run
+    private static final ExecutorService threads = Executors.newCachedThreadPool(body -> {
+        Thread thread = new Thread(null, body, "acacia-generator", Acacia.stackSize * 1024L * 1024L);
+
+        // A generator nobody finished shouldn't keep the program from exiting
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Thrown out of a yield to unwind the body of a generator that was closed before it finished
+    private static final class Closed extends Error {
+        private static final long serialVersionUID = 1L;
+
+        Closed() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final AcaciaFunction function;
+    private final Interpreter interpreter;
+    private final Object[] arguments;
+    private final Token location;
+
+    // Whether the generator's body has the turn, and what happened the last time it did
+    private boolean started = false;
+    private boolean closing = false;
+    private boolean bodysTurn = false;
+    private boolean finished = false;
+    private boolean holding = false;
+    private Object held = null;
+    private Throwable failure = null;
+
+    // The generator's methods, for calling it by hand rather than through foreach
+    private final AcaciaCallable hasNextMethod;
+    private final AcaciaCallable nextMethod;
+
+    AcaciaGenerator(AcaciaFunction function, Interpreter interpreter, Object[] arguments, Token location) {
+        this.function = function;
+        this.interpreter = interpreter;
+        this.arguments = arguments;
+        this.location = location;
+
+        this.hasNextMethod = method("hasNext", this::hasNext);
+        this.nextMethod = method("getNext", this::next);
+    }
+
+    @Override
+    public boolean hasNext(Token location) {
+        if (!holding && !finished) resume(location);
+        return holding;
+    }
+
+    @Override
+    public Object next(Token location) {
+        if (!hasNext(location)) throw new RuntimeError(location, "Generator has no more values.");
+
+        Object value = held;
+        holding = false;
+        held = null;
+        return value;
+    }
+
+    Object findMethod(Token name) {
+        if (name.lexeme.equals("hasNext")) return hasNextMethod;
+        if (name.lexeme.equals("getNext")) return nextMethod;
+
+        throw new RuntimeError(name, "Undefined generator method '" + name.lexeme + "'.");
+    }
+
+    // Hands a value over from the body of the generator running on this thread, and waits for its next turn
+    static void yield(Object value, Token keyword) {
+        running.get().hold(value, keyword);
+    }
+
+    // Gives the body the turn until it yields or finishes
+    private synchronized void resume(Token location) {
+        if (running.get() == this) {
+            throw new RuntimeError(location, "Generator can't ask itself for its next value.");
+        }
+
+        if (!started) {
+            started = true;
+            threads.execute(this::body);
+        }
+
+        Environment environment = interpreter.currentEnvironment();
+        bodysTurn = true;
+        notifyAll();
+        try {
+            awaitTurn(false, location);
+        } finally {
+            interpreter.restoreEnvironment(environment);
+        }
+
+        if (failure != null) {
+            Throwable thrown = failure;
+            failure = null;
+            if (thrown instanceof RuntimeException) throw (RuntimeException) thrown;
+            throw (Error) thrown;
+        }
+    }
+
+    private synchronized void hold(Object value, Token keyword) {
+        Environment environment = interpreter.currentEnvironment();
+        held = value;
+        holding = true;
+        bodysTurn = false;
+        notifyAll();
+
+        awaitTurn(true, keyword);
+        if (closing) throw new Closed();
+        interpreter.restoreEnvironment(environment);
+    }
+
+    // Unwinds the body of a generator that hasn't finished, so its thread can be used again
+    @Override
+    public synchronized void close() {
+        if (!started || finished) {
+            finished = true;
+            return;
+        }
+
+        // Unwinding the body leaves the interpreter wherever the body was, so it's put back afterwards
+        Environment environment = interpreter.currentEnvironment();
+        closing = true;
+        bodysTurn = true;
+        notifyAll();
+        try {
+            awaitTurn(false, location);
+        } finally {
+            interpreter.restoreEnvironment(environment);
+            holding = false;
+            held = null;
+            failure = null;
+        }
+    }
+
+    // Runs the generator function's body on the generator's own thread, once it first gets the turn
+    private void body() {
+        running.set(this);
+        try {
+            synchronized (this) {
+                awaitTurn(true, location);
+            }
+
+            try {
+                function.run(interpreter, arguments);
+            } catch (Return tailCall) {
+                // A call returned out of a generator has nothing to give its value to, but still has to be made
+                tailCall.callee.call(interpreter, tailCall.arguments, tailCall.location);
+            }
+        } catch (Closed closed) {
+            // It was closed, so nothing's waiting for what it would have done
+        } catch (StackOverflowError error) {
+            failure = new RuntimeError(location, "Call stack overflowed, recursion went too deep.");
+        } catch (RuntimeException | Error error) {
+            failure = error;
+        } finally {
+            running.remove();
+            synchronized (this) {
+                finished = true;
+                bodysTurn = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private void awaitTurn(boolean body, Token location) {
+        while (bodysTurn != body) {
+            try {
+                wait();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeError(location, "Generator was interrupted.");
+            }
+        }
+    }
+
+    private static AcaciaCallable method(String name, Function<Token, Object> body) {
+        return new AcaciaCallable() {
+            @Override
+            public int arity() {
+                return 0;
+            }
+
+            @Override
+            public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                return body.apply(location);
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String toString() {
+                return "<generator method " + name + ">";
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<generator " + function.name() + ">";
+    }
+}
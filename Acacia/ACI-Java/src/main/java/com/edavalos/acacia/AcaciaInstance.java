@@ -5,10 +5,16 @@ import java.util.Map;
 
 class AcaciaInstance {
     final AcaciaClass klass;
-    private final Map<String, Object> fields = new HashMap<>();
+    private final Map<String, Object> fields;
 
     AcaciaInstance(AcaciaClass klass) {
+        this(klass, new HashMap<>());
+    }
+
+    // Starts out with fields that are already known, like the keys of an object read from JSON
+    AcaciaInstance(AcaciaClass klass, Map<String, Object> fields) {
         this.klass = klass;
+        this.fields = fields;
     }
 
     Object get(Token name) {
@@ -22,10 +28,19 @@ class AcaciaInstance {
         throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
     }
 
+    boolean hasField(Token name) {
+        return fields.containsKey(name.lexeme);
+    }
+
     void put(Token name, Object value) {
         fields.put(name.lexeme, value);
     }
 
+    // Gets every field by name, for going through them without knowing their names beforehand
+    Map<String, Object> fields() {
+        return fields;
+    }
+
     @Override
     public String toString() {
         return klass.name + " instance";
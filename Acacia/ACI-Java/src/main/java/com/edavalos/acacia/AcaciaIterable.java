@@ -0,0 +1,20 @@
+package com.edavalos.acacia;
+
+/**
+ * Implementing AcaciaIterable allows a value to be indexed, measured with len() and looped over with foreach
+ */
+interface AcaciaIterable {
+    /**
+     * Gets the number of elements in this value.
+     * @return number of elements.
+     */
+    int cSize();
+
+    /**
+     * Gets the element at an index, where negative indices count back from the end.
+     * @param index The index of the element.
+     * @param location The token where it was indexed, for error handling.
+     * @return The element at that index.
+     */
+    Object get(int index, Token location);
+}
@@ -0,0 +1,26 @@
+package com.edavalos.acacia;
+
+/**
+ * Implementing AcaciaIterator allows a value to be looped over with foreach one element at a time, without knowing
+ * how many elements it has beforehand
+ */
+interface AcaciaIterator {
+    /**
+     * Checks whether there's another element to get.
+     * @param location The token where it's being iterated, for error handling.
+     * @return true if next() has something to give back.
+     */
+    boolean hasNext(Token location);
+
+    /**
+     * Gets the next element, and moves past it.
+     * @param location The token where it's being iterated, for error handling.
+     * @return The next element.
+     */
+    Object next(Token location);
+
+    /**
+     * Lets go of anything held open for iterating, once a loop over it is done. Does nothing unless overridden.
+     */
+    default void close() {}
+}
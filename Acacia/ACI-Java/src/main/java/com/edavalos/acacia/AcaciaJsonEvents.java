@@ -0,0 +1,221 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The events of a JSON file, read a buffer at a time as they're asked for, so a document of any size can be gone
+// through without ever holding all of it. Each event is a set of its kind and value: "object", "endObject", "array"
+// and "endArray" for where objects and arrays start and end, "key" for a key of an object, and "value" for anything
+// else. Any part of the document can also be read whole with value(), or an array a whole element at a time with
+// values(), in the middle of looping over the events
+class AcaciaJsonEvents implements AcaciaIterator {
+    private static final String OBJECT = "object";
+    private static final String END_OBJECT = "endObject";
+    private static final String ARRAY = "array";
+    private static final String END_ARRAY = "endArray";
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    private final String path;
+    private final FileText text;
+    private final JsonReader reader;
+
+    // Whether each object or array that's been started and not ended yet is an object, from the outermost in
+    private boolean[] inObject = new boolean[16];
+    private int depth = 0;
+
+    // Whether the object or array being read already has an element, so the next one needs a comma before it
+    private boolean needsComma = false;
+    // Whether a key was just read, so a value comes next
+    private boolean afterKey = false;
+    // Whether the whole document has been read
+    private boolean finished = false;
+
+    private List<Object> upcoming = null;
+
+    private final AcaciaCallable valueMethod;
+    private final AcaciaCallable valuesMethod;
+
+    AcaciaJsonEvents(String path, Token location) {
+        this.path = path;
+        this.text = new FileText(path, location);
+        this.reader = new JsonReader(text, location);
+
+        this.valueMethod = Natives.method("json events", "value", 0, (arguments, at) -> {
+            startValue(at);
+            Object value = reader.readValue(0);
+            endValue();
+            return value;
+        });
+        this.valuesMethod = Natives.method("json events", "values", 0, (arguments, at) -> {
+            if (upcoming != null || afterKey || depth == 0 || inObject[depth - 1]) {
+                throw new RuntimeError(at, "Can only read the elements of an array while inside of one.");
+            }
+            return new Elements();
+        });
+    }
+
+    Object findMethod(Token name) {
+        return switch (name.lexeme) {
+            case "value" -> valueMethod;
+            case "values" -> valuesMethod;
+            default -> throw new RuntimeError(name, "Undefined json events method '" + name.lexeme + "'.");
+        };
+    }
+
+    @Override
+    public boolean hasNext(Token location) {
+        if (upcoming == null && !(finished && depth == 0 && !text.isOpen())) upcoming = readEvent(location);
+        return upcoming != null;
+    }
+
+    @Override
+    public Object next(Token location) {
+        if (!hasNext(location)) throw new RuntimeError(location, "No more events in file '" + path + "'.");
+
+        AcaciaSet event = new AcaciaSet(upcoming);
+        upcoming = null;
+        return event;
+    }
+
+    @Override
+    public void close() {
+        text.close();
+    }
+
+    // Reads up to the end of the next event, or gives back null once the whole document has been read
+    private List<Object> readEvent(Token location) {
+        reader.at(location);
+
+        if (afterKey) {
+            afterKey = false;
+            return readValueEvent();
+        }
+
+        if (depth == 0) {
+            if (finished) {
+                reader.expectEnd();
+                text.close();
+                return null;
+            }
+            return readValueEvent();
+        }
+
+        char close = inObject[depth - 1] ? '}' : ']';
+        if (atEnd(close)) return endContainer(close == '}' ? END_OBJECT : END_ARRAY);
+
+        if (close == '}') {
+            afterKey = true;
+            return event(KEY, reader.readKey());
+        }
+        return readValueEvent();
+    }
+
+    // Reads up to the next element of the object or array being read, giving back true if it ends instead
+    private boolean atEnd(char close) {
+        if (reader.peekPastWhitespace() == close) {
+            reader.readSeparator(close);
+            return true;
+        }
+
+        // Anything else has to be the comma before the next element
+        if (needsComma) reader.readSeparator(close);
+        needsComma = false;
+        return false;
+    }
+
+    private List<Object> readValueEvent() {
+        int c = reader.peekPastWhitespace();
+        if (c == '{' || c == '[') {
+            reader.readSeparator((char) c);
+            startContainer(c == '{');
+            return event(c == '{' ? OBJECT : ARRAY, null);
+        }
+
+        Object value = reader.readScalar();
+        endValue();
+        return event(VALUE, value);
+    }
+
+    private void startContainer(boolean object) {
+        if (depth == inObject.length) inObject = Arrays.copyOf(inObject, depth * 2);
+        inObject[depth++] = object;
+        needsComma = false;
+    }
+
+    private List<Object> endContainer(String kind) {
+        depth--;
+        endValue();
+        return event(kind, null);
+    }
+
+    // Marks that a whole value was just read, wherever it was
+    private void endValue() {
+        if (depth == 0) finished = true;
+        else needsComma = true;
+    }
+
+    // Gets ready to read a whole value where the next event would start one
+    private void startValue(Token location) {
+        reader.at(location);
+        if (upcoming != null) throw new RuntimeError(location, "Can only read a value in the middle of a loop.");
+
+        if (afterKey) {
+            afterKey = false;
+        } else if (depth == 0) {
+            if (finished) throw new RuntimeError(location, "The whole of file '" + path + "' was already read.");
+        } else if (inObject[depth - 1]) {
+            throw new RuntimeError(location, "Can only read a value of an object right after its key.");
+        } else if (atEnd(']')) {
+            endContainer(END_ARRAY);
+            throw new RuntimeError(location, "No more elements in the array.");
+        }
+    }
+
+    private static List<Object> event(String kind, Object value) {
+        List<Object> event = new ArrayList<>(2);
+        event.add(kind);
+        event.add(value);
+        return event;
+    }
+
+    // The rest of the elements of an array, each read whole as it's asked for. Once they've all been read, looping over
+    // the events picks up right after the array
+    private class Elements implements AcaciaIterator {
+        private final int arrayDepth = depth;
+        private boolean done = false;
+
+        @Override
+        public boolean hasNext(Token location) {
+            if (done || depth != arrayDepth) return false;
+            reader.at(location);
+
+            if (atEnd(']')) {
+                endContainer(END_ARRAY);
+                done = true;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Object next(Token location) {
+            if (!hasNext(location)) throw new RuntimeError(location, "No more elements in the array.");
+
+            Object element = reader.readValue(0);
+            endValue();
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "<json elements of " + path + ">";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<json events of " + path + ">";
+    }
+}
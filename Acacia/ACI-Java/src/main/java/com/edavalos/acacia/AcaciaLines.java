@@ -0,0 +1,72 @@
+package com.edavalos.acacia;
+
+import java.nio.CharBuffer;
+
+// The lines of a file, read a buffer at a time as they're asked for, so a file of any size can be looped over
+// without ever holding more than one buffer and one line of it. Can only be looped over once
+class AcaciaLines implements AcaciaIterator {
+    private final FileText text;
+
+    // The line being put together, and the next whole line once there is one
+    private final StringBuilder line = new StringBuilder();
+    private String upcoming = null;
+
+    AcaciaLines(String path, Token location) {
+        this.text = new FileText(path, location);
+    }
+
+    @Override
+    public boolean hasNext(Token location) {
+        if (upcoming == null && text.isOpen()) upcoming = readLine(location);
+        return upcoming != null;
+    }
+
+    @Override
+    public Object next(Token location) {
+        if (!hasNext(location)) throw new RuntimeError(location, "No more lines in file '" + text.path + "'.");
+
+        String next = upcoming;
+        upcoming = null;
+        return next;
+    }
+
+    @Override
+    public void close() {
+        text.close();
+    }
+
+    // Gets the characters up to the next line break, or null once the whole file has been read
+    private String readLine(Token location) {
+        line.setLength(0);
+        boolean started = false;
+
+        while (true) {
+            CharBuffer chars = text.chars();
+            char[] array = chars.array();
+            int start = chars.position();
+            int end = chars.limit();
+
+            for (int i = start; i < end; i++) {
+                if (array[i] == '\n') {
+                    line.append(array, start, i - start);
+                    chars.position(i + 1);
+
+                    int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r') line.setLength(length - 1);
+                    return line.toString();
+                }
+            }
+
+            line.append(array, start, end - start);
+            started |= end > start;
+            chars.position(end);
+
+            if (!text.fill(location)) return started ? line.toString() : null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<lines of " + text.path + ">";
+    }
+}
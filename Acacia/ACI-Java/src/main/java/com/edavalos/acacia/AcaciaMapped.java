@@ -0,0 +1,155 @@
+package com.edavalos.acacia;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// A file mapped into memory for reading, so any part of it can be read straight from the page cache without reading
+// the parts before it or copying it anywhere first. Indexing it gives bytes, and its methods read bigger values
+class AcaciaMapped implements AcaciaIterable {
+    // Files are mapped in chunks, since one mapping can't be bigger than 2 GB. Each chunk reaches a few bytes into the
+    // next one, so a number starting in a chunk can always be read from that chunk alone
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int OVERLAP = Double.BYTES;
+
+    private final String path;
+    private final long size;
+    private final MappedByteBuffer[] chunks;
+
+    private final AcaciaCallable byteAtMethod;
+    private final AcaciaCallable intAtMethod;
+    private final AcaciaCallable doubleAtMethod;
+    private final AcaciaCallable stringAtMethod;
+    private final AcaciaCallable orderMethod;
+
+    AcaciaMapped(String path, Token location) {
+        this.path = path;
+
+        // The mapping stays valid after the channel it came from is closed
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.chunks = new MappedByteBuffer[(int) Math.max(1, (size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long length = Math.min(CHUNK_SIZE + OVERLAP, size - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        } catch (IOException | RuntimeException exception) {
+            throw Natives.fileError("map", path, exception, location);
+        }
+
+        this.byteAtMethod = Natives.method("mapped file", "byteAt", 1, (arguments, at) -> {
+            return (double) byteAt(offset(arguments[0], 1, at));
+        });
+        this.intAtMethod = Natives.method("mapped file", "intAt", 1, (arguments, at) -> {
+            long offset = offset(arguments[0], Integer.BYTES, at);
+            return (double) chunk(offset).getInt(within(offset));
+        });
+        this.doubleAtMethod = Natives.method("mapped file", "doubleAt", 1, (arguments, at) -> {
+            long offset = offset(arguments[0], Double.BYTES, at);
+            return chunk(offset).getDouble(within(offset));
+        });
+        this.stringAtMethod = Natives.method("mapped file", "stringAt", 2, (arguments, at) -> {
+            if (!(arguments[1] instanceof Double) || (double) arguments[1] < 0 ||
+                    (double) arguments[1] != Math.floor((double) arguments[1])) {
+                throw new RuntimeError(at, "String length must be a whole number that isn't negative.");
+            }
+            int length = (int) Math.min((double) arguments[1], Integer.MAX_VALUE);
+            return stringAt(offset(arguments[0], length, at), length);
+        });
+        this.orderMethod = Natives.method("mapped file", "order", 1, (arguments, at) -> {
+            ByteOrder order;
+            if ("big".equals(arguments[0])) order = ByteOrder.BIG_ENDIAN;
+            else if ("little".equals(arguments[0])) order = ByteOrder.LITTLE_ENDIAN;
+            else throw new RuntimeError(at, "Byte order must be either \"big\" or \"little\".");
+
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.order(order);
+            }
+            return null;
+        });
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Only the first 2 GB can be indexed or looped over, the methods can read from anywhere in the file
+    @Override
+    public int cSize() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Object get(int index, Token location) {
+        int length = cSize();
+        if (index < -length || index >= length) {
+            throw new RuntimeError(location, "Index out of bounds for a mapped file of length " + size + ".");
+        }
+        return (double) byteAt(index < 0 ? index + length : index);
+    }
+
+    Object findMethod(Token name) {
+        return switch (name.lexeme) {
+            case "byteAt" -> byteAtMethod;
+            case "intAt" -> intAtMethod;
+            case "doubleAt" -> doubleAtMethod;
+            case "stringAt" -> stringAtMethod;
+            case "order" -> orderMethod;
+            default -> throw new RuntimeError(name, "Undefined mapped file method '" + name.lexeme + "'.");
+        };
+    }
+
+    // Reads a byte as a number from 0 to 255
+    private int byteAt(long offset) {
+        return chunk(offset).get(within(offset)) & 0xFF;
+    }
+
+    private String stringAt(long offset, int length) {
+        byte[] bytes = new byte[length];
+
+        // Copies chunk by chunk, since a string can be longer than the overlap between them
+        int copied = 0;
+        while (copied < length) {
+            long at = offset + copied;
+            MappedByteBuffer chunk = chunk(at);
+            int count = (int) Math.min(length - copied, CHUNK_SIZE - within(at));
+            chunk.get(within(at), bytes, copied, count);
+            copied += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int within(long offset) {
+        return (int) (offset & (CHUNK_SIZE - 1));
+    }
+
+    // Checks that a value can be read from an offset, and turns the offset into a whole number
+    private long offset(Object offset, int width, Token location) {
+        if (!(offset instanceof Double) || (double) offset != Math.floor((double) offset)) {
+            throw new RuntimeError(location, "Offset must be a whole number.");
+        }
+
+        double at = (double) offset;
+        if (at < 0 || at + width > size) {
+            throw new RuntimeError(location, "Cannot read " + width + " bytes at offset " + Acacia.stringify(at) +
+                    " of a mapped file of length " + size + ".");
+        }
+        return (long) at;
+    }
+
+    @Override
+    public String toString() {
+        return "<mapped file " + path + ">";
+    }
+}
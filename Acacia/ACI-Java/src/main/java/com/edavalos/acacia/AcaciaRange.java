@@ -0,0 +1,65 @@
+package com.edavalos.acacia;
+
+// A run of evenly spaced numbers, which works out each one from its index instead of keeping them anywhere
+class AcaciaRange implements AcaciaIterable {
+    private final double start;
+    private final double end;
+    private final double step;
+    private final int size;
+
+    AcaciaRange(double start, double end, double step, Token location) {
+        if (step == 0.0) throw new RuntimeError(location, "Range step cannot be zero.");
+
+        double count = Math.ceil((end - start) / step);
+        if (count > Integer.MAX_VALUE) throw new RuntimeError(location, "Range is too long.");
+
+        this.start = start;
+        this.end = end;
+        this.step = step;
+        this.size = count > 0 ? (int) count : 0;
+    }
+
+    @Override
+    public int cSize() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index, Token location) {
+        return at(convertIndex(index, location));
+    }
+
+    // What the range was made from, for saving it as it is
+    double start() {
+        return start;
+    }
+
+    double end() {
+        return end;
+    }
+
+    double step() {
+        return step;
+    }
+
+    // Gets the number at an index that's known to be in the range
+    double at(int index) {
+        return start + index * step;
+    }
+
+    @Override
+    public String toString() {
+        return "range(" + Acacia.stringify(start) + ", " + Acacia.stringify(end) + ", " +
+                Acacia.stringify(step) + ")";
+    }
+
+    private int convertIndex(int index, Token location) {
+        if (size == 0) throw new RuntimeError(location, "Cannot index an empty range.");
+
+        if (index >= 0) return index % size;
+        if (index + size < 0) {
+            throw new RuntimeError(location, "Index out of bounds for a range of length " + size + ".");
+        }
+        return index + size;
+    }
+}
@@ -1,33 +1,63 @@
 package com.edavalos.acacia;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-class AcaciaSet extends AcaciaInstance {
-    private final List<Object> contents;
-    private final Map<String, AcaciaCallable> methods;
+class AcaciaSet extends AcaciaInstance implements AcaciaIterable {
+    // Every set has the same methods, so they're looked up in one table instead of one per set
+    private static final Map<String, AcaciaCallable> methods = new HashMap<>();
+    static {
+        for (AcaciaCallable setMethod : Natives.setMethods) {
+            methods.put(setMethod.name(), setMethod);
+        }
+    }
+
+    private List<Object> contents;
+
+    // Whether another set might be looking at the same contents because of a slice. Contents that are shared are
+    // never changed in place: whichever set changes first gets its own copy, and the other keeps the original
+    private boolean shared = false;
 
     AcaciaSet(List<Object> contents) {
         super(null);
         this.contents = contents;
-        this.methods = new HashMap<>();
-
-        for (AcaciaCallable setMethod : Natives.setMethods) {
-            methods.put(setMethod.name(), setMethod);
-        }
     }
 
     Object get(int index) {
         return contents.get(convertIndex(index));
     }
 
+    @Override
+    public Object get(int index, Token location) {
+        return get(index);
+    }
+
+    // Gets the contents for reading. Anything that changes them has to go through edit() instead
     List<Object> getAll() {
         return contents;
     }
 
+    // Gets the contents for changing, copying them first if a slice shares them
+    List<Object> edit() {
+        if (shared) {
+            contents = new ArrayList<>(contents);
+            shared = false;
+        }
+        return contents;
+    }
+
+    // Gets the elements between two indices as a set that reads from this one's contents instead of copying them
+    AcaciaSet slice(int from, int to) {
+        shared = true;
+        AcaciaSet slice = new AcaciaSet(contents.subList(from, to));
+        slice.shared = true;
+        return slice;
+    }
+
     void put(int index, Object value) {
-        contents.set(convertIndex(index), value);
+        edit().set(convertIndex(index), value);
     }
 
     double inc(int index, Token increment) {
@@ -48,7 +78,8 @@ class AcaciaSet extends AcaciaInstance {
         return newVal;
     }
 
-    int cSize() {
+    @Override
+    public int cSize() {
         return contents.size();
     }
 
@@ -0,0 +1,666 @@
+package com.edavalos.acacia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+// Values kept by string keys in a file, so they last from one run of a program to the next. The file is a log that's
+// only ever added to: each put or delete adds a record to its end, and a hash index in memory says where the latest
+// record of each key is, which is built again from the log whenever the store is opened. Values are read straight out
+// of the log mapped into memory. Records are only sure to be on disk once they're committed, and once most of the log
+// is records that have been replaced, it's compacted in the background into a new log of only the latest ones
+class AcaciaStore {
+    // "ACKV", then which version of the format follows
+    private static final int MAGIC = 0x41434B56;
+    private static final byte VERSION = 1;
+    private static final int FILE_HEADER = Integer.BYTES + 1;
+
+    // Each record starts with the length of its key, the length of its value (or -1 if it deletes the key), and a
+    // checksum of both, then has the key in UTF-8 and the value as serialize() writes it
+    private static final int RECORD_HEADER = Integer.BYTES * 3;
+    private static final int DELETED = -1;
+
+    // How many bytes of records are held before they're written to the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // How many bytes of replaced records there have to be, as well as more than there are of records still in use,
+    // before the log is compacted on its own
+    private static final long COMPACT_AFTER = 1L << 24;
+
+    // Stores that haven't been closed, which get committed when the program ends however it ends
+    private static final List<AcaciaStore> open = new ArrayList<>();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AcaciaStore::closeAll));
+    }
+
+    // Where the latest record of a key is in the log
+    private static final class Entry {
+        final String key;
+        final long offset;
+        final int keyLength;
+        final int valueLength;
+
+        Entry(String key, long offset, int keyLength, int valueLength) {
+            this.key = key;
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        long size() {
+            return RECORD_HEADER + keyLength + valueLength;
+        }
+    }
+
+    private final String path;
+    private final Interpreter interpreter;
+    private FileChannel channel;
+    private FileLock lock;
+    private Map<String, Entry> index = new HashMap<>();
+
+    // Records that haven't been written to the file yet, which go right after everything that has
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long written = 0;
+    // How many bytes of the log are the latest record of some key, which the rest of it is just taking up space
+    private long liveBytes = 0;
+
+    // The part of the file that's mapped, which is mapped again once something past it is read
+    private Mapping mapping;
+
+    private Compaction compaction = null;
+    // Once compacting on its own has failed it isn't tried again, since it would most likely keep failing
+    private boolean compactionFailed = false;
+
+    private final CRC32C checksum = new CRC32C();
+
+    private final AcaciaCallable getMethod;
+    private final AcaciaCallable putMethod;
+    private final AcaciaCallable deleteMethod;
+    private final AcaciaCallable scanMethod;
+    private final AcaciaCallable sizeMethod;
+    private final AcaciaCallable commitMethod;
+    private final AcaciaCallable compactMethod;
+    private final AcaciaCallable closeMethod;
+
+    AcaciaStore(String path, Interpreter interpreter, Token location) {
+        this.path = path;
+        this.interpreter = interpreter;
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE);
+            this.lock = channel.tryLock();
+            if (lock == null) throw new OverlappingFileLockException();
+
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).put(VERSION);
+                flush();
+                channel.force(false);
+                mapping = Mapping.of(channel, written);
+            } else {
+                load(location);
+            }
+            channel.position(written);
+        } catch (IOException | RuntimeException exception) {
+            try {
+                if (channel != null) channel.close();
+            } catch (IOException ignored) {
+                // Nothing was written through it, so there's nothing that could have been lost
+            }
+
+            if (exception instanceof RuntimeError) throw (RuntimeError) exception;
+            if (exception instanceof OverlappingFileLockException) {
+                throw new RuntimeError(location, "Store '" + path + "' is already open.");
+            }
+            throw Natives.fileError("open", path, exception, location);
+        }
+        synchronized (open) {
+            open.add(this);
+        }
+
+        this.getMethod = Natives.method("store", "get", 1, (arguments, at) -> get(key(arguments[0], at), at));
+        this.putMethod = Natives.method("store", "put", 2, (arguments, at) -> {
+            put(key(arguments[0], at), arguments[1], at);
+            return null;
+        });
+        this.deleteMethod = Natives.method("store", "delete", 1, (arguments, at) -> {
+            return delete(key(arguments[0], at), at);
+        });
+        this.scanMethod = Natives.method("store", "scan", 1, (arguments, at) -> scan(key(arguments[0], at), at));
+        this.sizeMethod = Natives.method("store", "size", 0, (arguments, at) -> size(at));
+        this.commitMethod = Natives.method("store", "commit", 0, (arguments, at) -> {
+            commit(at);
+            return null;
+        });
+        this.compactMethod = Natives.method("store", "compact", 0, (arguments, at) -> {
+            compact(at);
+            return null;
+        });
+        this.closeMethod = Natives.method("store", "close", 0, (arguments, at) -> {
+            close(at);
+            return null;
+        });
+    }
+
+    Object findMethod(Token name) {
+        return switch (name.lexeme) {
+            case "get" -> getMethod;
+            case "put" -> putMethod;
+            case "delete" -> deleteMethod;
+            case "scan" -> scanMethod;
+            case "size" -> sizeMethod;
+            case "commit" -> commitMethod;
+            case "compact" -> compactMethod;
+            case "close" -> closeMethod;
+            default -> throw new RuntimeError(name, "Undefined store method '" + name.lexeme + "'.");
+        };
+    }
+
+    private static String key(Object key, Token location) {
+        if (!(key instanceof String)) throw new RuntimeError(location, "Store keys must be strings.");
+        return (String) key;
+    }
+
+    synchronized Object get(String key, Token location) {
+        checkOpen(location);
+
+        Entry entry = index.get(key);
+        if (entry == null) return null;
+
+        try {
+            ByteBuffer value = read(entry.offset + RECORD_HEADER + entry.keyLength, entry.valueLength);
+            return Snapshot.decode(value, interpreter, location, "Store '" + path + "'");
+        } catch (IOException exception) {
+            throw Natives.fileError("read", path, exception, location);
+        }
+    }
+
+    synchronized void put(String key, Object value, Token location) {
+        checkOpen(location);
+
+        // The value is worked out before anything is added, so a value that can't be saved leaves the log as it was
+        ByteBuffer encoded = Snapshot.encode(value, location);
+        Entry entry = append(key, encoded, location);
+
+        Entry replaced = index.put(key, entry);
+        liveBytes += entry.size() - (replaced == null ? 0 : replaced.size());
+        compactIfNeeded();
+    }
+
+    synchronized boolean delete(String key, Token location) {
+        checkOpen(location);
+
+        Entry deleted = index.remove(key);
+        if (deleted == null) return false;
+
+        append(key, null, location);
+        liveBytes -= deleted.size();
+        compactIfNeeded();
+        return true;
+    }
+
+    // Goes through the keys that start with a prefix in order, along with their values, read as they're asked for
+    synchronized AcaciaIterator scan(String prefix, Token location) {
+        checkOpen(location);
+
+        List<String> keys = index.keySet().stream()
+                .filter(key -> key.startsWith(prefix))
+                .sorted()
+                .collect(Collectors.toList());
+
+        return new AcaciaIterator() {
+            private int at = 0;
+
+            @Override
+            public boolean hasNext(Token location) {
+                // Keys deleted since the scan started are skipped
+                synchronized (AcaciaStore.this) {
+                    while (at < keys.size() && channel != null && !index.containsKey(keys.get(at))) at++;
+                    return at < keys.size() && channel != null;
+                }
+            }
+
+            @Override
+            public Object next(Token location) {
+                if (!hasNext(location)) throw new RuntimeError(location, "No more keys in store '" + path + "'.");
+
+                String key = keys.get(at++);
+                List<Object> pair = new ArrayList<>(2);
+                pair.add(key);
+                pair.add(get(key, location));
+                return new AcaciaSet(pair);
+            }
+
+            @Override
+            public String toString() {
+                return "<scan of store " + path + ">";
+            }
+        };
+    }
+
+    synchronized double size(Token location) {
+        checkOpen(location);
+        return index.size();
+    }
+
+    // Makes sure everything put or deleted so far is on disk, so it'll be there even if the computer goes down
+    synchronized void commit(Token location) {
+        checkOpen(location);
+        try {
+            flush();
+            channel.force(false);
+        } catch (IOException exception) {
+            throw Natives.fileError("write to", path, exception, location);
+        }
+    }
+
+    // Compacts the log now instead of waiting for it to happen on its own, and waits for it to finish
+    void compact(Token location) {
+        // One that was already running leaves whatever was added while it ran as it was, so this waits for it first
+        while (true) {
+            Compaction running;
+            boolean started = false;
+            synchronized (this) {
+                checkOpen(location);
+                if (compaction == null) {
+                    startCompaction(location);
+                    started = true;
+                }
+                running = compaction;
+            }
+
+            finish(running);
+            if (!started) continue;
+
+            if (running.failure != null) throw Natives.fileError("compact", path, running.failure, location);
+            return;
+        }
+    }
+
+    void close(Token location) {
+        Compaction running;
+        synchronized (this) {
+            if (channel == null) return;
+            running = compaction;
+            if (running != null) running.cancelled = true;
+        }
+        if (running != null) finish(running);
+
+        synchronized (this) {
+            if (channel == null) return;
+            try {
+                flush();
+                channel.force(false);
+                channel.close();
+            } catch (IOException exception) {
+                throw Natives.fileError("close", path, exception, location);
+            } finally {
+                channel = null;
+                mapping = null;
+                index = new HashMap<>();
+                synchronized (open) {
+                    open.remove(this);
+                }
+            }
+        }
+    }
+
+    private void checkOpen(Token location) {
+        if (channel == null) throw new RuntimeError(location, "Store '" + path + "' is closed.");
+    }
+
+    // Goes through the log to build the index, leaving off a record at the end that was cut off partway through
+    private void load(Token location) throws IOException {
+        long size = channel.size();
+        mapping = Mapping.of(channel, size);
+
+        ByteBuffer header = size < FILE_HEADER ? null : mapping.bytes(0, FILE_HEADER);
+        if (header == null || header.getInt(0) != MAGIC) {
+            throw new RuntimeError(location, "File '" + path + "' isn't a store made by openStore().");
+        }
+        if (header.get(Integer.BYTES) != VERSION) {
+            throw new RuntimeError(location, "File '" + path + "' is a store from another version.");
+        }
+
+        long at = FILE_HEADER;
+        while (size - at >= RECORD_HEADER) {
+            ByteBuffer record = mapping.bytes(at, RECORD_HEADER);
+            int keyLength = record.getInt(0);
+            int valueLength = record.getInt(Integer.BYTES);
+
+            long length = (long) keyLength + Math.max(valueLength, 0);
+            if (keyLength < 0 || valueLength < DELETED || length > Integer.MAX_VALUE ||
+                    size - at - RECORD_HEADER < length) break;
+
+            ByteBuffer contents = mapping.bytes(at + RECORD_HEADER, (int) length);
+            checksum.reset();
+            checksum.update(contents.duplicate());
+            if ((int) checksum.getValue() != record.getInt(Integer.BYTES * 2)) break;
+
+            String key = keyOf(contents, 0, keyLength);
+            liveBytes += apply(index, key, at, keyLength, valueLength);
+            at += RECORD_HEADER + length;
+        }
+
+        // Anything after the last whole record was never committed
+        if (at < size) {
+            channel.truncate(at);
+            mapping = Mapping.of(channel, at);
+        }
+        written = at;
+    }
+
+    private byte[] keyBytes = new byte[64];
+
+    // Reads a key out of a record, through the same array each time since most keys are short
+    private String keyOf(ByteBuffer record, int from, int length) {
+        if (length > keyBytes.length) keyBytes = new byte[Math.max(length, keyBytes.length * 2)];
+        record.get(from, keyBytes, 0, length);
+        return new String(keyBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Puts a record into an index, giving back how much that changes the size of the records in use
+    private static long apply(Map<String, Entry> index, String key, long offset, int keyLength, int valueLength) {
+        Entry replaced;
+        long added = 0;
+        if (valueLength == DELETED) {
+            replaced = index.remove(key);
+        } else {
+            Entry entry = new Entry(key, offset, keyLength, valueLength);
+            replaced = index.put(key, entry);
+            added = entry.size();
+        }
+        return added - (replaced == null ? 0 : replaced.size());
+    }
+
+    // Adds a record to the end of the log, deleting the key if there's no value
+    private Entry append(String key, ByteBuffer value, Token location) {
+        ByteBuffer keyBytes = ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+        int keyLength = keyBytes.remaining();
+        int valueLength = value == null ? DELETED : value.remaining();
+
+        checksum.reset();
+        checksum.update(keyBytes.duplicate());
+        if (value != null) checksum.update(value.duplicate());
+
+        int size = RECORD_HEADER + keyLength + Math.max(valueLength, 0);
+        long offset = written + buffer.position();
+        try {
+            if (size > buffer.remaining()) flush();
+
+            ByteBuffer header = size > buffer.capacity() ? ByteBuffer.allocate(RECORD_HEADER) : buffer;
+            header.putInt(keyLength).putInt(valueLength).putInt((int) checksum.getValue());
+
+            // Anything too big to ever fit in the buffer goes straight to the file
+            if (header != buffer) {
+                drain(header.flip());
+                drain(keyBytes);
+                drain(value);
+                written += size;
+            } else {
+                buffer.put(keyBytes);
+                if (value != null) buffer.put(value);
+            }
+        } catch (IOException exception) {
+            throw Natives.fileError("write to", path, exception, location);
+        }
+        return new Entry(key, offset, keyLength, valueLength);
+    }
+
+    // Gets bytes of the log, from the buffer if they haven't been written to the file yet
+    private ByteBuffer read(long offset, int length) throws IOException {
+        if (offset >= written) {
+            ByteBuffer unwritten = buffer.duplicate();
+            int from = (int) (offset - written);
+            unwritten.limit(from + length).position(from);
+            return unwritten.slice();
+        }
+
+        if (offset + length > mapping.size) mapping = mapping.extend(channel, written);
+        return mapping.bytes(offset, length);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        written += buffer.remaining();
+        drain(buffer);
+        buffer.clear();
+    }
+
+    private void drain(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void compactIfNeeded() {
+        long garbage = written + buffer.position() - FILE_HEADER - liveBytes;
+        if (compaction == null && !compactionFailed && garbage >= COMPACT_AFTER && garbage > liveBytes) {
+            startCompaction(null);
+        }
+    }
+
+    private void startCompaction(Token location) {
+        try {
+            flush();
+            Entry[] entries = index.values().toArray(new Entry[0]);
+            compaction = new Compaction(entries, written, Mapping.of(channel, written));
+        } catch (IOException exception) {
+            throw Natives.fileError("compact", path, exception, location);
+        }
+        compaction.start();
+    }
+
+    private static void finish(Compaction running) {
+        boolean interrupted = false;
+        while (running.isAlive()) {
+            try {
+                running.join();
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // Copies the latest record of each key into a new log, without holding up the program, then puts it in place of
+    // the old one. Records added while it's copying are copied over at the end, once nothing else can be added
+    private final class Compaction extends Thread {
+        private final Entry[] entries;
+        private final long end;
+        private final Mapping source;
+
+        volatile boolean cancelled = false;
+        IOException failure = null;
+
+        // Records are copied into the new log through a buffer, and how much of it there is so far
+        private FileChannel out;
+        private final ByteBuffer pending = ByteBuffer.allocateDirect(1 << 20);
+        private long at = 0;
+
+        Compaction(Entry[] entries, long end, Mapping source) {
+            super("store compaction");
+            setDaemon(true);
+            this.entries = entries;
+            this.end = end;
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            Path temporary = Paths.get(path + ".compact");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                this.out = out;
+
+                // Going through the records in the order they're in the log reads it from start to end
+                Arrays.sort(entries, Comparator.comparingLong(entry -> entry.offset));
+
+                Map<String, Entry> copied = new HashMap<>(entries.length * 4 / 3 + 1);
+                copy(ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).put(VERSION).flip());
+
+                for (Entry entry : entries) {
+                    if (cancelled) return;
+
+                    copied.put(entry.key, new Entry(entry.key, at, entry.keyLength, entry.valueLength));
+                    copy(source.bytes(entry.offset, (int) entry.size()));
+                }
+
+                swap(temporary, copied);
+            } catch (IOException exception) {
+                failure = exception;
+            } finally {
+                synchronized (AcaciaStore.this) {
+                    if (compaction == this) compaction = null;
+                    if (failure != null) compactionFailed = true;
+                }
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // It's only ever written over by the next compaction
+                }
+            }
+        }
+
+        // Copies over whatever was added since copying started, then makes the new log the store's log
+        private void swap(Path temporary, Map<String, Entry> copied) throws IOException {
+            synchronized (AcaciaStore.this) {
+                if (cancelled || channel == null) return;
+
+                flush();
+                if (written > mapping.size) mapping = mapping.extend(channel, written);
+                for (long from = end; from < written; ) {
+                    ByteBuffer header = mapping.bytes(from, RECORD_HEADER);
+                    int keyLength = header.getInt(0);
+                    int valueLength = header.getInt(Integer.BYTES);
+                    int size = RECORD_HEADER + keyLength + Math.max(valueLength, 0);
+
+                    ByteBuffer record = mapping.bytes(from, size);
+                    String key = keyOf(record, RECORD_HEADER, keyLength);
+                    apply(copied, key, at, keyLength, valueLength);
+
+                    copy(record);
+                    from += size;
+                }
+                drain(pending.flip());
+                out.force(false);
+
+                try {
+                    Files.move(temporary, Paths.get(path), StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException exception) {
+                    Files.move(temporary, Paths.get(path), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                // The records in use are the same ones as before, so they take up the same space
+                channel.close();
+                channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                lock = channel.tryLock();
+                channel.position(at);
+
+                index = copied;
+                written = at;
+                mapping = Mapping.of(channel, at);
+            }
+        }
+
+        private void copy(ByteBuffer bytes) throws IOException {
+            at += bytes.remaining();
+            if (bytes.remaining() > pending.remaining()) drain(pending.flip());
+
+            if (bytes.remaining() > pending.capacity()) drain(bytes);
+            else pending.put(bytes);
+        }
+
+        private void drain(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+
+    // A file mapped into memory in chunks, since one mapping can't be bigger than 2 GB
+    private static final class Mapping {
+        private static final int CHUNK_SHIFT = 30;
+        private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+        final MappedByteBuffer[] chunks;
+        final long size;
+
+        private Mapping(MappedByteBuffer[] chunks, long size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        static Mapping of(FileChannel channel, long size) throws IOException {
+            return new Mapping(new MappedByteBuffer[0], 0).extend(channel, size);
+        }
+
+        // Maps more of a file that's grown, keeping the chunks that were already whole
+        Mapping extend(FileChannel channel, long size) throws IOException {
+            MappedByteBuffer[] grown = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < grown.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long length = Math.min(CHUNK_SIZE, size - start);
+
+                boolean whole = i < chunks.length && chunks[i].capacity() == length;
+                grown[i] = whole ? chunks[i] : channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return new Mapping(grown, size);
+        }
+
+        // Gets bytes straight from the mapping, or a copy of them if they cross from one chunk into the next
+        ByteBuffer bytes(long offset, int length) {
+            ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)].duplicate();
+            int within = (int) (offset & (CHUNK_SIZE - 1));
+            if (within + length <= chunk.capacity()) return chunk.limit(within + length).position(within).slice();
+
+            ByteBuffer copy = ByteBuffer.allocate(length);
+            while (copy.hasRemaining()) {
+                long at = offset + copy.position();
+                ByteBuffer part = chunks[(int) (at >>> CHUNK_SHIFT)].duplicate();
+                int from = (int) (at & (CHUNK_SIZE - 1));
+                part.limit(Math.min(part.capacity(), from + copy.remaining())).position(from);
+                copy.put(part);
+            }
+            return copy.flip();
+        }
+    }
+
+    // Commits and closes every store left open, ignoring any that fail since the program is already over
+    private static void closeAll() {
+        List<AcaciaStore> stores;
+        synchronized (open) {
+            stores = new ArrayList<>(open);
+        }
+
+        for (AcaciaStore store : stores) {
+            try {
+                store.close(null);
+            } catch (RuntimeError ignored) {}
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<store " + path + ">";
+    }
+}
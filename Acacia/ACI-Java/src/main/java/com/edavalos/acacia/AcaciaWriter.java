@@ -0,0 +1,226 @@
+package com.edavalos.acacia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// A file opened for adding to its end. Whatever is written is kept in a buffer, and only goes to the file once the
+// buffer fills up or the writer is flushed or closed, so lots of small writes become a few big ones
+class AcaciaWriter implements JsonWriter.Sink {
+    // How many bytes are held before they're written to the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Writers that haven't been closed, which get flushed when the program ends however it ends
+    private static final List<AcaciaWriter> open = new ArrayList<>();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AcaciaWriter::closeAll));
+    }
+
+    private final String path;
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // Where the JSON being written was written from, for reporting errors while flushing in the middle of it
+    private Token sinkLocation = null;
+
+    private final AcaciaCallable writeMethod;
+    private final AcaciaCallable writeLineMethod;
+    private final AcaciaCallable writeRowMethod;
+    private final AcaciaCallable writeJsonMethod;
+    private final AcaciaCallable flushMethod;
+    private final AcaciaCallable closeMethod;
+
+    AcaciaWriter(String path, Token location) {
+        this.path = path;
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                            StandardOpenOption.APPEND);
+        } catch (IOException | RuntimeException exception) {
+            throw Natives.fileError("write to", path, exception, location);
+        }
+        synchronized (open) {
+            open.add(this);
+        }
+
+        this.writeMethod = Natives.method("writer", "write", 1, (arguments, at) -> {
+            if (arguments[0] instanceof AcaciaBytes) write(((AcaciaBytes) arguments[0]).buffer(), at);
+            else write(Acacia.stringify(arguments[0]), at);
+            return null;
+        });
+        this.writeLineMethod = Natives.method("writer", "writeLine", 1, (arguments, at) -> {
+            write(Acacia.stringify(arguments[0]) + "\n", at);
+            return null;
+        });
+        this.writeRowMethod = Natives.method("writer", "writeRow", 1, (arguments, at) -> {
+            if (!(arguments[0] instanceof AcaciaSet)) throw new RuntimeError(at, "Expected set as argument.");
+            write(csvRow(((AcaciaSet) arguments[0]).getAll()), at);
+            return null;
+        });
+        this.writeJsonMethod = Natives.method("writer", "writeJson", 1, (arguments, at) -> {
+            writeJson(arguments[0], at);
+            return null;
+        });
+        this.flushMethod = Natives.method("writer", "flush", 0, (arguments, at) -> {
+            flush(at);
+            return null;
+        });
+        this.closeMethod = Natives.method("writer", "close", 0, (arguments, at) -> {
+            close(at);
+            return null;
+        });
+    }
+
+    Object findMethod(Token name) {
+        return switch (name.lexeme) {
+            case "write" -> writeMethod;
+            case "writeLine" -> writeLineMethod;
+            case "writeRow" -> writeRowMethod;
+            case "writeJson" -> writeJsonMethod;
+            case "flush" -> flushMethod;
+            case "close" -> closeMethod;
+            default -> throw new RuntimeError(name, "Undefined writer method '" + name.lexeme + "'.");
+        };
+    }
+
+    void write(String text, Token location) {
+        write(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), location);
+    }
+
+    synchronized void write(ByteBuffer bytes, Token location) {
+        if (channel == null) throw new RuntimeError(location, "Cannot write to closed file '" + path + "'.");
+        if (bytes.remaining() > buffer.remaining()) flush(location);
+
+        // Anything too big to ever fit in the buffer goes straight to the file
+        if (bytes.remaining() > buffer.capacity()) {
+            drain(bytes, location);
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    // Writes a value as JSON and a line break, encoding it straight into the buffer as it's worked out
+    synchronized void writeJson(Object value, Token location) {
+        if (channel == null) throw new RuntimeError(location, "Cannot write to closed file '" + path + "'.");
+
+        sinkLocation = location;
+        JsonWriter.write(value, this, location);
+        append('\n');
+    }
+
+    @Override
+    public void append(char c) {
+        if (buffer.remaining() < 3) flush(sinkLocation);
+
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >>> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            // Surrogates only come in through strings, which encode them in pairs
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >>> 12)));
+            buffer.put((byte) (0x80 | ((c >>> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    @Override
+    public void append(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                if (buffer.remaining() < 4) flush(sinkLocation);
+
+                int code = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | (code >>> 18)));
+                buffer.put((byte) (0x80 | ((code >>> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((code >>> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (code & 0x3F)));
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    synchronized void flush(Token location) {
+        if (channel == null) return;
+
+        buffer.flip();
+        drain(buffer, location);
+        buffer.clear();
+    }
+
+    synchronized void close(Token location) {
+        if (channel == null) return;
+
+        flush(location);
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            throw Natives.fileError("close", path, exception, location);
+        } finally {
+            channel = null;
+            synchronized (open) {
+                open.remove(this);
+            }
+        }
+    }
+
+    // Writes out a row of a CSV file, quoting any cell that has a comma, quote or line break in it. Nil is left empty
+    private static String csvRow(List<Object> cells) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) row.append(',');
+
+            Object cell = cells.get(i);
+            if (cell == null) continue;
+
+            String text = cell instanceof String ? (String) cell : Acacia.stringify(cell);
+            boolean quoted = false;
+            for (int j = 0; j < text.length() && !quoted; j++) {
+                char c = text.charAt(j);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (quoted) row.append('"').append(text.replace("\"", "\"\"")).append('"');
+            else row.append(text);
+        }
+        return row.append('\n').toString();
+    }
+
+    private void drain(ByteBuffer bytes, Token location) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException exception) {
+            throw Natives.fileError("write to", path, exception, location);
+        }
+    }
+
+    // Flushes and closes every writer left open, ignoring any that fail since the program is already over
+    private static void closeAll() {
+        List<AcaciaWriter> writers;
+        synchronized (open) {
+            writers = new ArrayList<>(open);
+        }
+
+        for (AcaciaWriter writer : writers) {
+            try {
+                writer.close(null);
+            } catch (RuntimeError ignored) {}
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<writer for " + path + ">";
+    }
+}
@@ -0,0 +1,760 @@
+package com.edavalos.acacia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+// Compiles hot functions that only ever work with numbers into JVM classes, where every value is a primitive double.
+// A function qualifies if it takes numbers, does arithmetic on them and its own local variables, calls itself,
+// and returns a number on every path. Nothing it does can fail or be seen from outside, so whenever it's called with
+// anything other than numbers, the interpreter can just run it instead.
+class BytecodeCompiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    // A compiled function, which takes its arguments in order
+    interface Compiled {
+        double run(double[] arguments);
+    }
+
+    private static final String PACKAGE = "com/edavalos/acacia/";
+    private static final String COMPILED = PACKAGE + "BytecodeCompiler$Compiled";
+    private static int classCount = 0;
+
+    private final Stmt.Function function;
+    private final String className;
+    private final ConstantPool pool = new ConstantPool();
+    private final Code code = new Code();
+
+    // Local variables in scope, mapped to the slot they live in
+    private final Stack<Map<String, Integer>> scopes = new Stack<>();
+    private int nextSlot = 0;
+    private int maxSlots = 0;
+
+    // The start of the function's body, which calls to itself that it returns jump back to
+    private final Label top = new Label();
+
+    // Whether the code being generated can be reached at all
+    private boolean reachable = true;
+
+    private BytecodeCompiler(Stmt.Function function) {
+        this.function = function;
+        this.className = PACKAGE + "Compiled" + function.name.lexeme + "$" + (classCount++);
+    }
+
+    // Tries to compile a function, or marks it as one that never will be
+    static void compile(Stmt.Function function) {
+        try {
+            BytecodeCompiler compiler = new BytecodeCompiler(function);
+            byte[] bytes = compiler.generate();
+
+            Class<?> compiled = MethodHandles.lookup().defineClass(bytes);
+            function.compiled = compiled.getDeclaredConstructor().newInstance();
+            function.state = NodeState.SPECIALIZED;
+        } catch (Unsupported | ReflectiveOperationException | LinkageError exception) {
+            function.state = NodeState.GENERIC;
+        }
+    }
+
+    // Runs a compiled function, or gives back null if it has to be interpreted this time around.
+    // Calls to itself are compiled in directly, so callers have to make sure its name still refers to it
+    static Object run(Stmt.Function function, Object[] arguments) {
+        double[] values = new double[arguments.length];
+        for (int i = 0; i < values.length; i++) {
+            Object argument = arguments[i];
+            if (!(argument instanceof Double)) return null;
+            values[i] = (double) argument;
+        }
+
+        // Nothing the compiled code does can be seen from outside, so recursion too deep for it can be run by the
+        // interpreter instead. It would most likely go too deep again, so the compiled code isn't tried any more
+        try {
+            return ((Compiled) function.compiled).run(values);
+        } catch (StackOverflowError error) {
+            function.state = NodeState.GENERIC;
+            return null;
+        }
+    }
+
+
+    /* --- Class file generation --- */
+
+    private byte[] generate() {
+        String descriptor = "(" + "D".repeat(function.params.size()) + ")D";
+
+        // The function itself, as a static method taking and returning doubles
+        scopes.push(new HashMap<>());
+        for (Token param : function.params) {
+            declare(param);
+        }
+        bind(top);
+        for (Stmt statement : function.body) {
+            generate(statement);
+        }
+        if (reachable) throw new Unsupported();
+        byte[] body = code.finish();
+        int bodyStack = code.maxStack;
+
+        // run(), which unpacks the arguments and passes them to the static method
+        Code run = new Code();
+        for (int i = 0; i < function.params.size(); i++) {
+            run.op(ALOAD_1, 1);
+            run.push(i);
+            run.op(DALOAD, 0);
+        }
+        run.op(INVOKESTATIC, 2 - 2 * function.params.size());
+        run.u2(pool.method(className, "body", descriptor));
+        run.op(DRETURN, -2);
+
+        // A constructor that does nothing but call Object's
+        Code init = new Code();
+        init.op(ALOAD_0, 1);
+        init.op(INVOKESPECIAL, -1);
+        init.u2(pool.method("java/lang/Object", "<init>", "()V"));
+        init.op(RETURN, 0);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            // Header, names are added to the pool before it's written out
+            int thisClass = pool.type(className);
+            int superClass = pool.type("java/lang/Object");
+            int compiledInterface = pool.type(COMPILED);
+            int codeName = pool.utf8("Code");
+            int[][] methods = {
+                    { 0x0001, pool.utf8("<init>"), pool.utf8("()V") },
+                    { 0x0001, pool.utf8("run"), pool.utf8("([D)D") },
+                    { 0x0009, pool.utf8("body"), pool.utf8(descriptor) }
+            };
+            byte[][] codes = { init.finish(), run.finish(), body };
+            int[] stacks = { init.maxStack, run.maxStack, bodyStack };
+            int[] locals = { 1, 2, Math.max(maxSlots, 1) };
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            pool.write(out);
+            out.writeShort(0x0031);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(compiledInterface);
+            out.writeShort(0);
+
+            out.writeShort(methods.length);
+            for (int i = 0; i < methods.length; i++) {
+                out.writeShort(methods[i][0]);
+                out.writeShort(methods[i][1]);
+                out.writeShort(methods[i][2]);
+                out.writeShort(1);
+
+                out.writeShort(codeName);
+                out.writeInt(12 + codes[i].length);
+                out.writeShort(stacks[i]);
+                out.writeShort(locals[i]);
+                out.writeInt(codes[i].length);
+                out.write(codes[i]);
+                out.writeShort(0);
+                out.writeShort(0);
+            }
+            out.writeShort(0);
+
+            return bytes.toByteArray();
+        } catch (IOException exception) {
+            throw new Unsupported();
+        }
+    }
+
+    private void generate(Stmt stmt) {
+        // Anything after a return is never run, so it's left out
+        if (reachable) stmt.accept(this);
+    }
+
+    private void generate(Expr expr) {
+        expr.accept(this);
+    }
+
+
+    /* --- Expressions' visitor methods, which leave a double on the stack --- */
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        int slot = slot(expr.name);
+        generate(expr.value);
+        code.op(DUP2, 2);
+        store(slot);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        int opcode = switch (expr.operator.type) {
+            case PLUS -> DADD;
+            case MINUS -> DSUB;
+            case STAR -> DMUL;
+            case SLASH -> DDIV;
+            case MODULO -> DREM;
+            case CARET -> INVOKESTATIC;
+            default -> throw new Unsupported();
+        };
+
+        generate(expr.left);
+        generate(expr.right);
+        code.op(opcode, -2);
+        if (opcode == INVOKESTATIC) code.u2(pool.method("java/lang/Math", "pow", "(DD)D"));
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        // The only function that can be called is the one being compiled
+        if (!callsItself(expr)) throw new Unsupported();
+
+        for (Expr argument : expr.arguments) {
+            generate(argument);
+        }
+        code.op(INVOKESTATIC, 2 - 2 * expr.arguments.size());
+        code.u2(pool.method(className, "body", "(" + "D".repeat(function.params.size()) + ")D"));
+
+        function.recursive = true;
+        return null;
+    }
+
+    @Override
+    public Void visitEditSetExpr(Expr.EditSet expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        generate(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementExpr(Expr.Increment expr) {
+        int slot = slot(expr.var);
+        load(slot);
+
+        switch (expr.type.type) {
+            case DOUBLE_PLUS -> { code.op(DCONST_1, 2); code.op(DADD, -2); }
+            case DOUBLE_MINUS -> { code.op(DCONST_1, 2); code.op(DSUB, -2); }
+            case TRIPLE_PLUS -> { constant(2.0); code.op(DMUL, -2); }
+            case TRIPLE_MINUS -> { constant(2.0); code.op(DDIV, -2); }
+            default -> throw new Unsupported();
+        }
+
+        code.op(DUP2, 2);
+        store(slot);
+        return null;
+    }
+
+    @Override
+    public Void visitIncSetExpr(Expr.IncSet expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitIndexExpr(Expr.Index expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        if (!(expr.value instanceof Double)) throw new Unsupported();
+        constant((double) expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        // Gives back one of its operands, which are only known to be numbers inside conditions
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitPutExpr(Expr.Put expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitSliceExpr(Expr.Slice expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        if (expr.operator.type != TokenType.MINUS) throw new Unsupported();
+
+        generate(expr.right);
+        code.op(DNEG, 0);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        load(slot(expr.name));
+        return null;
+    }
+
+
+    /* --- Statements' visitor methods --- */
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashMap<>());
+        int slots = nextSlot;
+
+        for (Stmt statement : stmt.statements) {
+            generate(statement);
+        }
+
+        scopes.pop();
+        nextSlot = slots;
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitExitStmt(Stmt.Exit stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        generate(stmt.expression);
+        code.op(POP2, -2);
+        return null;
+    }
+
+    @Override
+    public Void visitForeachStmt(Stmt.Foreach stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        Label elseBranch = new Label();
+        condition(stmt.condition, false, elseBranch);
+
+        generate(stmt.thenBranch);
+        boolean thenReachable = reachable;
+
+        if (stmt.elseBranch == null) {
+            bind(elseBranch);
+            reachable = true;
+            return null;
+        }
+
+        Label end = new Label();
+        if (thenReachable) jump(GOTO, end);
+
+        bind(elseBranch);
+        reachable = true;
+        generate(stmt.elseBranch);
+
+        bind(end);
+        reachable = reachable || thenReachable;
+        return null;
+    }
+
+    @Override
+    public Void visitNextStmt(Stmt.Next stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitOpenStmt(Stmt.Open stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        throw new Unsupported();
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value == null) throw new Unsupported();
+
+        // Returning a call to itself starts the function over with the new arguments, instead of nesting a call
+        if (stmt.tail && callsItself((Expr.Call) stmt.value)) {
+            Expr.Call call = (Expr.Call) stmt.value;
+            for (Expr argument : call.arguments) {
+                generate(argument);
+            }
+            // Parameters are the first locals declared, so they're in the first slots whatever shadows them
+            for (int i = function.params.size() - 1; i >= 0; i--) {
+                store(2 * i);
+            }
+            jump(GOTO, top);
+
+            function.recursive = true;
+            reachable = false;
+            return null;
+        }
+
+        generate(stmt.value);
+        code.op(DRETURN, -2);
+        reachable = false;
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer == null) throw new Unsupported();
+
+        generate(stmt.initializer);
+        store(declare(stmt.name));
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        Label start = new Label();
+        Label end = new Label();
+
+        bind(start);
+        condition(stmt.condition, false, end);
+
+        generate(stmt.body);
+        if (reachable && stmt.increment != null) {
+            generate(stmt.increment);
+            code.op(POP2, -2);
+        }
+        if (reachable) jump(GOTO, start);
+
+        bind(end);
+        reachable = true;
+        return null;
+    }
+
+    @Override
+    public Void visitYieldStmt(Stmt.Yield stmt) {
+        throw new Unsupported();
+    }
+
+
+    /* --- Utility methods --- */
+
+    // Generates a condition that jumps to a label when its truthiness matches, and falls through otherwise
+    private void condition(Expr expr, boolean jumpIf, Label target) {
+        if (expr instanceof Expr.Grouping) {
+            condition(((Expr.Grouping) expr).expression, jumpIf, target);
+        }
+
+        else if (expr instanceof Expr.Unary && ((Expr.Unary) expr).operator.type == TokenType.BANG) {
+            condition(((Expr.Unary) expr).right, !jumpIf, target);
+        }
+
+        else if (expr instanceof Expr.Logical) {
+            Expr.Logical logical = (Expr.Logical) expr;
+            boolean or = logical.operator.type == TokenType.OR;
+
+            // Either side alone decides it when it's true for 'or', or false for 'and'
+            if (or == jumpIf) {
+                condition(logical.left, jumpIf, target);
+                condition(logical.right, jumpIf, target);
+            } else {
+                Label skip = new Label();
+                condition(logical.left, or, skip);
+                condition(logical.right, jumpIf, target);
+                bind(skip);
+            }
+        }
+
+        else if (expr instanceof Expr.Binary && comparison(((Expr.Binary) expr).operator.type)) {
+            Expr.Binary binary = (Expr.Binary) expr;
+            generate(binary.left);
+            generate(binary.right);
+
+            // NaN has to make every comparison false, which is what picking dcmpg or dcmpl is for
+            switch (binary.operator.type) {
+                case LESS -> { code.op(DCMPG, -3); jump(jumpIf ? IFLT : IFGE, target); }
+                case LESS_EQUAL -> { code.op(DCMPG, -3); jump(jumpIf ? IFLE : IFGT, target); }
+                case GREATER -> { code.op(DCMPL, -3); jump(jumpIf ? IFGT : IFLE, target); }
+                case GREATER_EQUAL -> { code.op(DCMPL, -3); jump(jumpIf ? IFGE : IFLT, target); }
+
+                // Same as comparing the boxed numbers with isEqual()
+                case EQUAL_EQUAL, BANG_EQUAL -> {
+                    code.op(INVOKESTATIC, -3);
+                    code.u2(pool.method("java/lang/Double", "compare", "(DD)I"));
+                    boolean equal = binary.operator.type == TokenType.EQUAL_EQUAL;
+                    jump(equal == jumpIf ? IFEQ : IFNE, target);
+                }
+            }
+        }
+
+        else if (expr instanceof Expr.Literal && !(((Expr.Literal) expr).value instanceof Double)) {
+            if (Acacia.isTruthy(((Expr.Literal) expr).value) == jumpIf) jump(GOTO, target);
+        }
+
+        // Any other number is true unless it's zero
+        else {
+            generate(expr);
+            code.op(DCONST_0, 2);
+            code.op(DCMPL, -3);
+            jump(jumpIf ? IFNE : IFEQ, target);
+        }
+    }
+
+    private static boolean comparison(TokenType type) {
+        return switch (type) {
+            case LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EQUAL_EQUAL, BANG_EQUAL -> true;
+            default -> false;
+        };
+    }
+
+    // Determines whether a call is to the function being compiled, by a name nothing inside of it shadows
+    private boolean callsItself(Expr.Call call) {
+        if (!(call.callee instanceof Expr.Variable)) return false;
+
+        Token name = ((Expr.Variable) call.callee).name;
+        return name.lexeme.equals(function.name.lexeme) && lookUp(name) == null &&
+                call.arguments.size() == function.params.size();
+    }
+
+    // Gives a new local variable its own slot in the current scope
+    private int declare(Token name) {
+        if (scopes.peek().containsKey(name.lexeme)) throw new Unsupported();
+        if (nextSlot > 252) throw new Unsupported();
+
+        int slot = nextSlot;
+        scopes.peek().put(name.lexeme, slot);
+        nextSlot += 2;
+        maxSlots = Math.max(maxSlots, nextSlot);
+        return slot;
+    }
+
+    // Finds the slot of a local variable, or null if it isn't one
+    private Integer lookUp(Token name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Integer slot = scopes.get(i).get(name.lexeme);
+            if (slot != null) return slot;
+        }
+        return null;
+    }
+
+    // Finds the slot of a local variable, anything from outside the function can't be compiled
+    private int slot(Token name) {
+        Integer slot = lookUp(name);
+        if (slot == null) throw new Unsupported();
+        return slot;
+    }
+
+    private void load(int slot) {
+        code.op(DLOAD, 2);
+        code.u1(slot);
+    }
+
+    private void store(int slot) {
+        code.op(DSTORE, -2);
+        code.u1(slot);
+    }
+
+    private void constant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L) code.op(DCONST_0, 2);
+        else if (value == 1.0) code.op(DCONST_1, 2);
+        else {
+            code.op(LDC2_W, 2);
+            code.u2(pool.number(value));
+        }
+    }
+
+    // Jumps to a label, conditional jumps take the int left on the stack
+    private void jump(int opcode, Label target) {
+        int at = code.length;
+        code.op(opcode, opcode == GOTO ? 0 : -1);
+
+        if (target.position != -1) {
+            code.u2(target.position - at);
+        } else {
+            code.u2(0);
+            target.uses.add(at);
+        }
+    }
+
+    // Places a label where the next instruction goes, and points every jump to it there
+    private void bind(Label label) {
+        for (int at : label.uses) {
+            code.patch(at + 1, code.length - at);
+        }
+        label.uses.clear();
+
+        // Jumps that come later, like the ones back to the top of a loop, are pointed to it right away
+        label.position = code.length;
+    }
+
+    // A place in the code that jumps go to
+    private static class Label {
+        final List<Integer> uses = new ArrayList<>();
+        int position = -1;
+    }
+
+    // Bytecode for one method, which also keeps track of how deep the operand stack gets
+    private static class Code {
+        private byte[] bytes = new byte[64];
+        int length = 0;
+        int stack = 0;
+        int maxStack = 0;
+
+        void op(int opcode, int stackChange) {
+            u1(opcode);
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        void push(int value) {
+            if (value <= 5) op(ICONST_0 + value, 1);
+            else if (value <= Byte.MAX_VALUE) {
+                op(BIPUSH, 1);
+                u1(value);
+            } else {
+                op(SIPUSH, 1);
+                u2(value);
+            }
+        }
+
+        void u1(int value) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            bytes[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+
+        void patch(int at, int value) {
+            bytes[at] = (byte) (value >> 8);
+            bytes[at + 1] = (byte) value;
+        }
+
+        byte[] finish() {
+            if (length > Short.MAX_VALUE) throw new Unsupported();
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    // The constant pool of the class being generated, which only ever adds each constant once
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("utf8:" + value, 1, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int type(String name) {
+            int nameIndex = utf8(name);
+            return entry("class:" + name, 1, () -> {
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+            });
+        }
+
+        int method(String owner, String name, String descriptor) {
+            int ownerIndex = type(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("nameandtype:" + name + descriptor, 1, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+
+            return entry("method:" + owner + "." + name + descriptor, 1, () -> {
+                out.writeByte(10);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int number(double value) {
+            return entry("double:" + Double.doubleToRawLongBits(value), 2, () -> {
+                out.writeByte(6);
+                out.writeDouble(value);
+            });
+        }
+
+        // Adds a constant, taking up one or two slots in the pool, unless it's already there
+        private int entry(String key, int size, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null) return index;
+
+            try {
+                writer.write();
+            } catch (IOException exception) {
+                throw new Unsupported();
+            }
+            entries.put(key, count);
+            count += size;
+            if (count > 0xFFFF) throw new Unsupported();
+            return count - size;
+        }
+
+        void write(DataOutputStream to) throws IOException {
+            to.writeShort(count);
+            to.write(bytes.toByteArray());
+        }
+
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+
+    // Thrown when a function does something that can't be compiled
+    private static class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final int ICONST_0 = 0x03, DCONST_0 = 0x0e, DCONST_1 = 0x0f, BIPUSH = 0x10, SIPUSH = 0x11,
+            LDC2_W = 0x14, DLOAD = 0x18, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, DALOAD = 0x31, DSTORE = 0x39,
+            POP2 = 0x58, DUP2 = 0x5c, DADD = 0x63, DSUB = 0x67, DMUL = 0x6b, DDIV = 0x6f, DREM = 0x73,
+            DNEG = 0x77, DCMPL = 0x97, DCMPG = 0x98, IFEQ = 0x99, IFNE = 0x9a, IFLT = 0x9b, IFGE = 0x9c,
+            IFGT = 0x9d, IFLE = 0x9e, GOTO = 0xa7, DRETURN = 0xaf, RETURN = 0xb1, INVOKESPECIAL = 0xb7,
+            INVOKESTATIC = 0xb8;
+}
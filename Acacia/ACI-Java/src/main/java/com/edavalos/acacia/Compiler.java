@@ -0,0 +1,752 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Turns the resolved syntax tree into a tree of closures that are linked together ahead of time,
+// so running a program no longer has to dispatch on node and operator types at every step
+class Compiler implements Expr.Visitor<Compiler.Evaluator>, Stmt.Visitor<Compiler.Executor> {
+    // A compiled expression, which gives back its value in a given environment
+    interface Evaluator {
+        Object evaluate(Environment environment);
+    }
+
+    // A compiled statement, which runs in a given environment
+    interface Executor {
+        void execute(Environment environment);
+    }
+
+    private final Interpreter interpreter;
+    private final Environment globals;
+
+    Compiler(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.globals = interpreter.globals;
+    }
+
+    // Compiles a whole program into one statement that runs each of its statements in order
+    Executor compile(List<Stmt> statements) {
+        return sequence(statements);
+    }
+
+    private Executor compile(Stmt stmt) {
+        return stmt.accept(this);
+    }
+
+    private Evaluator compile(Expr expr) {
+        return expr.accept(this);
+    }
+
+
+    /* --- Expressions' visitor methods --- */
+
+    @Override
+    public Evaluator visitAssignExpr(Expr.Assign expr) {
+        Evaluator value = compile(expr.value);
+        Token name = expr.name;
+
+        Integer distance = interpreter.depthOf(expr);
+        if (distance == null) {
+            return env -> {
+                Object result = value.evaluate(env);
+                globals.assign(name, result);
+                return result;
+            };
+        }
+
+        int depth = distance;
+        return env -> {
+            Object result = value.evaluate(env);
+            env.assignAt(depth, name, result);
+            return result;
+        };
+    }
+
+    @Override
+    public Evaluator visitBinaryExpr(Expr.Binary expr) {
+        Evaluator left = compile(expr.left);
+        Evaluator right = compile(expr.right);
+
+        // Operands that were proven ahead of time to be numbers or strings don't need to be checked
+        if (expr.operands == ValueType.NUMBER) return binaryNumbers(expr.operator, left, right);
+        if (expr.operands == ValueType.STRING) return binaryStrings(expr.operator, left, right);
+
+        Token operator = expr.operator;
+        return switch (operator.type) {
+            case MINUS -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a - (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case PLUS -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a + (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case SLASH -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a / (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case STAR -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a * (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case MODULO -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a % (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case CARET -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return Math.pow((double)a, (double)b);
+                return interpreter.binary(operator, a, b);
+            };
+
+            case GREATER -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a > (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case GREATER_EQUAL -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a >= (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case LESS -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a < (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+            case LESS_EQUAL -> env -> {
+                Object a = left.evaluate(env), b = right.evaluate(env);
+                if (a instanceof Double && b instanceof Double) return (double)a <= (double)b;
+                return interpreter.binary(operator, a, b);
+            };
+
+            case BANG_EQUAL -> env -> !interpreter.isEqual(left.evaluate(env), right.evaluate(env));
+            case EQUAL_EQUAL -> env -> interpreter.isEqual(left.evaluate(env), right.evaluate(env));
+
+            default -> env -> {
+                left.evaluate(env);
+                right.evaluate(env);
+                return null;
+            };
+        };
+    }
+
+    // Compiles a binary operator over two values already known to be numbers
+    private Evaluator binaryNumbers(Token operator, Evaluator left, Evaluator right) {
+        return switch (operator.type) {
+            case MINUS -> env -> (double)left.evaluate(env) - (double)right.evaluate(env);
+            case PLUS -> env -> (double)left.evaluate(env) + (double)right.evaluate(env);
+            case SLASH -> env -> (double)left.evaluate(env) / (double)right.evaluate(env);
+            case STAR -> env -> (double)left.evaluate(env) * (double)right.evaluate(env);
+            case MODULO -> env -> (double)left.evaluate(env) % (double)right.evaluate(env);
+            case CARET -> env -> Math.pow((double)left.evaluate(env), (double)right.evaluate(env));
+
+            case GREATER -> env -> (double)left.evaluate(env) > (double)right.evaluate(env);
+            case GREATER_EQUAL -> env -> (double)left.evaluate(env) >= (double)right.evaluate(env);
+            case LESS -> env -> (double)left.evaluate(env) < (double)right.evaluate(env);
+            case LESS_EQUAL -> env -> (double)left.evaluate(env) <= (double)right.evaluate(env);
+
+            // Same as comparing the boxed numbers with isEqual()
+            case BANG_EQUAL -> env -> Double.compare((double)left.evaluate(env), (double)right.evaluate(env)) != 0;
+            case EQUAL_EQUAL -> env -> Double.compare((double)left.evaluate(env), (double)right.evaluate(env)) == 0;
+
+            default -> env -> {
+                left.evaluate(env);
+                right.evaluate(env);
+                return null;
+            };
+        };
+    }
+
+    // Compiles a binary operator over two values already known to be strings
+    private Evaluator binaryStrings(Token operator, Evaluator left, Evaluator right) {
+        return switch (operator.type) {
+            case PLUS -> env -> (String)left.evaluate(env) + (String)right.evaluate(env);
+
+            case GREATER -> env -> ((String)left.evaluate(env)).length() > ((String)right.evaluate(env)).length();
+            case GREATER_EQUAL -> env -> ((String)left.evaluate(env)).length() >= ((String)right.evaluate(env)).length();
+            case LESS -> env -> ((String)left.evaluate(env)).length() < ((String)right.evaluate(env)).length();
+            case LESS_EQUAL -> env -> ((String)left.evaluate(env)).length() <= ((String)right.evaluate(env)).length();
+
+            case BANG_EQUAL -> env -> !left.evaluate(env).equals(right.evaluate(env));
+            case EQUAL_EQUAL -> env -> left.evaluate(env).equals(right.evaluate(env));
+
+            default -> env -> {
+                left.evaluate(env);
+                right.evaluate(env);
+                return null;
+            };
+        };
+    }
+
+    @Override
+    public Evaluator visitCallExpr(Expr.Call expr) {
+        Evaluator callee = compile(expr.callee);
+        Evaluator[] arguments = compileAll(expr.arguments);
+        Token paren = expr.paren;
+
+        return env -> {
+            Object function = callee.evaluate(env);
+
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].evaluate(env);
+            }
+
+            // Small functions are evaluated right here, as long as they're called with the arguments they take
+            if (function instanceof AcaciaFunction && ((AcaciaFunction) function).arity() == values.length) {
+                Inliner.Body body = ((AcaciaFunction) function).inlined(interpreter);
+                if (body != null) return ((AcaciaFunction) function).evaluateInlined(body, values);
+            }
+
+            return interpreter.call(function, values, paren);
+        };
+    }
+
+    @Override
+    public Evaluator visitEditSetExpr(Expr.EditSet expr) {
+        Evaluator value = compile(expr.value);
+        Evaluator target = variable(expr.name, expr);
+        Evaluator[] path = compileAll(expr.path);
+        Token name = expr.name;
+
+        return env -> {
+            Object result = value.evaluate(env);
+            Object var = target.evaluate(env);
+
+            if (var instanceof AcaciaArray && ((AcaciaArray) var).rank() == path.length) {
+                ((AcaciaArray) var).store(cell(env, (AcaciaArray) var, name, path), result, name);
+                return result;
+            }
+
+            Object container = walk(env, name, var, path);
+            int index = interpreter.wholeNumber(path[path.length - 1].evaluate(env), name);
+
+            if (container instanceof AcaciaArray) ((AcaciaArray) container).put(index, result, name);
+            else ((AcaciaSet) container).put(index, result);
+            return result;
+        };
+    }
+
+    @Override
+    public Evaluator visitGetExpr(Expr.Get expr) {
+        Evaluator object = compile(expr.object);
+        Token name = expr.name;
+
+        return env -> interpreter.getProperty(object.evaluate(env), name);
+    }
+
+    @Override
+    public Evaluator visitGroupingExpr(Expr.Grouping expr) {
+        return compile(expr.expression);
+    }
+
+    @Override
+    public Evaluator visitIncrementExpr(Expr.Increment expr) {
+        Evaluator current = variable(expr.var, expr);
+        Token var = expr.var;
+        Token type = expr.type;
+        boolean checked = expr.operand != ValueType.NUMBER;
+
+        Integer distance = interpreter.depthOf(expr);
+        int depth = distance == null ? -1 : distance;
+
+        return env -> {
+            Object currentValue = current.evaluate(env);
+            if (checked && !(currentValue instanceof Double)) {
+                throw new RuntimeError(type, "Invalid increment target.");
+            }
+
+            Double newValue = switch (type.type) {
+                case DOUBLE_PLUS -> ((Double) currentValue) + 1.0;
+                case DOUBLE_MINUS -> ((Double) currentValue) - 1.0;
+                case TRIPLE_PLUS -> ((Double) currentValue) * 2.0;
+                case TRIPLE_MINUS -> ((Double) currentValue) / 2.0;
+                default -> null;
+            };
+
+            if (depth != -1) env.assignAt(depth, var, newValue);
+            else globals.assign(var, newValue);
+
+            return newValue;
+        };
+    }
+
+    @Override
+    public Evaluator visitIncSetExpr(Expr.IncSet expr) {
+        Evaluator target = variable(expr.name, expr);
+        Evaluator[] path = compileAll(expr.path);
+        Token name = expr.name;
+        Token type = expr.type;
+
+        return env -> {
+            Object var = target.evaluate(env);
+
+            if (var instanceof AcaciaArray && ((AcaciaArray) var).rank() == path.length) {
+                return ((AcaciaArray) var).increment(cell(env, (AcaciaArray) var, name, path), type);
+            }
+
+            Object container = walk(env, name, var, path);
+            int index = interpreter.wholeNumber(path[path.length - 1].evaluate(env), name);
+
+            if (container instanceof AcaciaArray) return ((AcaciaArray) container).inc(index, type);
+            return ((AcaciaSet) container).inc(index, type);
+        };
+    }
+
+    @Override
+    public Evaluator visitIndexExpr(Expr.Index expr) {
+        Evaluator set = compile(expr.set);
+        Evaluator location = compile(expr.location);
+        Token bracket = expr.bracket;
+
+        return env -> {
+            int index = interpreter.wholeNumber(location.evaluate(env), bracket);
+            return interpreter.index(set.evaluate(env), index, bracket);
+        };
+    }
+
+    @Override
+    public Evaluator visitLiteralExpr(Expr.Literal expr) {
+        Object value = expr.value;
+        return env -> value;
+    }
+
+    @Override
+    public Evaluator visitLogicalExpr(Expr.Logical expr) {
+        Evaluator left = compile(expr.left);
+        Evaluator right = compile(expr.right);
+
+        if (expr.operator.type == TokenType.OR) {
+            return env -> {
+                Object value = left.evaluate(env);
+                if (Acacia.isTruthy(value)) return value;
+                return right.evaluate(env);
+            };
+        }
+
+        return env -> {
+            Object value = left.evaluate(env);
+            if (!Acacia.isTruthy(value)) return value;
+            return right.evaluate(env);
+        };
+    }
+
+    @Override
+    public Evaluator visitPutExpr(Expr.Put expr) {
+        Evaluator object = compile(expr.object);
+        Evaluator value = compile(expr.value);
+        Token name = expr.name;
+
+        return env -> {
+            Object instance = object.evaluate(env);
+            if (!(instance instanceof AcaciaInstance)) {
+                throw new RuntimeError(name, "Only instances have fields.");
+            }
+
+            Object result = value.evaluate(env);
+            ((AcaciaInstance) instance).put(name, result);
+            return result;
+        };
+    }
+
+    @Override
+    public Evaluator visitSetExpr(Expr.Set expr) {
+        Evaluator[] values = compileAll(expr.values);
+
+        return env -> {
+            List<Object> contents = new ArrayList<>(values.length);
+            for (Evaluator value : values) {
+                contents.add(value.evaluate(env));
+            }
+            return new AcaciaSet(contents);
+        };
+    }
+
+    @Override
+    public Evaluator visitSliceExpr(Expr.Slice expr) {
+        Evaluator set = compile(expr.set);
+        Evaluator from = compile(expr.from);
+        Evaluator to = compile(expr.to);
+        Token bracket = expr.bracket;
+
+        return env -> {
+            Object sliced = set.evaluate(env);
+            return interpreter.slice(sliced, from.evaluate(env), to.evaluate(env), bracket);
+        };
+    }
+
+    @Override
+    public Evaluator visitSuperExpr(Expr.Super expr) {
+        int distance = interpreter.depthOf(expr);
+        Token method = expr.method;
+
+        return env -> {
+            AcaciaClass superclass = (AcaciaClass) env.getAt(distance, "super");
+            AcaciaInstance object = (AcaciaInstance) env.getAt(distance - 1, "this");
+            AcaciaFunction function = superclass.findMethod(method.lexeme);
+
+            if (function == null) {
+                throw new RuntimeError(method, "Undefined property '" + method.lexeme + "'.");
+            }
+            else return function.bind(object);
+        };
+    }
+
+    @Override
+    public Evaluator visitThisExpr(Expr.This expr) {
+        return variable(expr.keyword, expr);
+    }
+
+    @Override
+    public Evaluator visitUnaryExpr(Expr.Unary expr) {
+        Evaluator right = compile(expr.right);
+        Token operator = expr.operator;
+
+        return switch (operator.type) {
+            case MINUS -> {
+                if (expr.operand == ValueType.NUMBER) yield env -> -(double) right.evaluate(env);
+
+                yield env -> {
+                    Object value = right.evaluate(env);
+                    if (!(value instanceof Double)) throw new RuntimeError(operator, "Operand must be a number.");
+                    return -(double) value;
+                };
+            }
+            case BANG -> env -> !Acacia.isTruthy(right.evaluate(env));
+
+            default -> env -> {
+                right.evaluate(env);
+                return null;
+            };
+        };
+    }
+
+    @Override
+    public Evaluator visitVariableExpr(Expr.Variable expr) {
+        return variable(expr.name, expr);
+    }
+
+
+    /* --- Statements' visitor methods --- */
+
+    @Override
+    public Executor visitBlockStmt(Stmt.Block stmt) {
+        Executor body = sequence(stmt.statements);
+        return env -> body.execute(new Environment(env));
+    }
+
+    @Override
+    public Executor visitClassStmt(Stmt.Class stmt) {
+        Evaluator superclassValue = stmt.superclass == null ? null : compile(stmt.superclass);
+        Token name = stmt.name;
+
+        Map<Stmt.Function, Executor> bodies = new HashMap<>();
+        for (Stmt.Function method : stmt.methods) {
+            bodies.put(method, sequence(method.body));
+        }
+
+        return env -> {
+            Object superclass = null;
+            if (superclassValue != null) {
+                superclass = superclassValue.evaluate(env);
+                if (!(superclass instanceof AcaciaClass)) {
+                    throw new RuntimeError(stmt.superclass.name, "Superclass must be a class.");
+                }
+            }
+
+            env.define(name, null);
+
+            Environment environment = env;
+            if (superclassValue != null) {
+                environment = new Environment(env);
+                environment.hardDefine("super", superclass);
+            }
+
+            Map<String, AcaciaFunction> methods = new HashMap<>();
+            for (Stmt.Function method : stmt.methods) {
+                AcaciaFunction function = new AcaciaFunction(method, environment,
+                                                             method.name.lexeme.equals("init"),
+                                                             bodies.get(method));
+                methods.put(method.name.lexeme, function);
+            }
+
+            env.assign(name, new AcaciaClass(name.lexeme, (AcaciaClass) superclass, methods));
+        };
+    }
+
+    @Override
+    public Executor visitExitStmt(Stmt.Exit stmt) {
+        return env -> {
+            throw new Exit();
+        };
+    }
+
+    @Override
+    public Executor visitExpressionStmt(Stmt.Expression stmt) {
+        Evaluator expression = compile(stmt.expression);
+
+        if (Acacia.replMode) return env -> System.out.println(Acacia.stringify(expression.evaluate(env)));
+        return expression::evaluate;
+    }
+
+    @Override
+    public Executor visitForeachStmt(Stmt.Foreach stmt) {
+        Evaluator iterableValue = compile(stmt.iterable);
+        Executor body = compile(stmt.body);
+        Token iterator = stmt.iterator;
+        Token indexName = stmt.index;
+        Token iterableName = stmt.iterableName;
+
+        return env -> {
+            env.define(iterator, null);
+            if (indexName != null) env.define(indexName, 0);
+
+            Object iterable = iterableValue.evaluate(env);
+            if (!(iterable instanceof String) && !(iterable instanceof AcaciaIterable)) {
+                AcaciaIterator elements = interpreter.iteratorOf(iterable, iterableName);
+                int index = 0;
+
+                try {
+                    while (elements.hasNext(iterableName)) {
+                        env.assign(iterator, elements.next(iterableName));
+
+                        try {
+                            body.execute(env);
+                        } catch (Exit x) {
+                            break;
+                        } catch (Next x) {
+                            continue;
+                        } finally {
+                            index++;
+                            if (indexName != null) env.assign(indexName, index);
+                        }
+                    }
+                } finally {
+                    elements.close();
+                }
+                return;
+            }
+
+            boolean isRange = iterable instanceof AcaciaRange;
+            boolean isString = iterable instanceof String;
+            int size = isString ? ((String) iterable).length() : ((AcaciaIterable) iterable).cSize();
+            int index = 0;
+
+            while (index < size) {
+                if (isRange) env.assign(iterator, ((AcaciaRange) iterable).at(index));
+                else if (isString) env.assign(iterator, Acacia.character(((String) iterable).charAt(index)));
+                else env.assign(iterator, ((AcaciaIterable) iterable).get(index, iterableName));
+
+                try {
+                    body.execute(env);
+                } catch (Exit x) {
+                    break;
+                } catch (Next x) {
+                    continue;
+                } finally {
+                    index++;
+                    if (indexName != null) env.assign(indexName, index);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Executor visitFunctionStmt(Stmt.Function stmt) {
+        Executor body = sequence(stmt.body);
+        return env -> env.define(stmt.name, new AcaciaFunction(stmt, env, false, body));
+    }
+
+    @Override
+    public Executor visitIfStmt(Stmt.If stmt) {
+        Evaluator condition = compile(stmt.condition);
+        Executor thenBranch = compile(stmt.thenBranch);
+
+        if (stmt.elseBranch == null) {
+            return env -> {
+                if (Acacia.isTruthy(condition.evaluate(env))) thenBranch.execute(env);
+            };
+        }
+
+        Executor elseBranch = compile(stmt.elseBranch);
+        return env -> {
+            if (Acacia.isTruthy(condition.evaluate(env))) thenBranch.execute(env);
+            else elseBranch.execute(env);
+        };
+    }
+
+    @Override
+    public Executor visitNextStmt(Stmt.Next stmt) {
+        return env -> {
+            throw new Next();
+        };
+    }
+
+    @Override
+    public Executor visitOpenStmt(Stmt.Open stmt) {
+        Evaluator file = compile(stmt.file);
+        Token keyword = stmt.keyword;
+
+        return env -> {
+            Object value = file.evaluate(env);
+            if (!(value instanceof String)) {
+                throw new RuntimeError(keyword, "Box/File names must be strings.");
+            }
+            String name = ((String) value);
+            var parts = name.split("\\.");
+            if (!parts[parts.length - 1].equals("aci")) {
+                name += ".aci";
+            }
+            Acacia.runFile(name);
+        };
+    }
+
+    @Override
+    public Executor visitPrintStmt(Stmt.Print stmt) {
+        Evaluator expression = compile(stmt.expression);
+        return env -> System.out.println(Acacia.stringify(expression.evaluate(env)).replaceAll("\\\\n", "\n"));
+    }
+
+    @Override
+    public Executor visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value == null) {
+            return env -> {
+                throw new Return(null);
+            };
+        }
+
+        if (stmt.tail) {
+            Expr.Call call = (Expr.Call) stmt.value;
+            Evaluator callee = compile(call.callee);
+            Evaluator[] arguments = compileAll(call.arguments);
+
+            return env -> {
+                Object function = callee.evaluate(env);
+
+                Object[] values = new Object[arguments.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = arguments[i].evaluate(env);
+                }
+
+                throw interpreter.tailCall(function, values, call.paren);
+            };
+        }
+
+        Evaluator value = compile(stmt.value);
+        return env -> {
+            throw new Return(value.evaluate(env));
+        };
+    }
+
+    @Override
+    public Executor visitVarStmt(Stmt.Var stmt) {
+        Token name = stmt.name;
+        if (stmt.initializer == null) return env -> env.define(name, null);
+
+        Evaluator initializer = compile(stmt.initializer);
+        return env -> env.define(name, initializer.evaluate(env));
+    }
+
+    @Override
+    public Executor visitWhileStmt(Stmt.While stmt) {
+        Evaluator condition = compile(stmt.condition);
+        Executor body = compile(stmt.body);
+        Evaluator increment = stmt.increment == null ? null : compile(stmt.increment);
+
+        return env -> {
+            while (Acacia.isTruthy(condition.evaluate(env))) {
+                try {
+                    body.execute(env);
+                } catch (Exit x) {
+                    break;
+                } catch (Next x) {
+                    continue;
+                } finally {
+                    if (increment != null) increment.evaluate(env);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Executor visitYieldStmt(Stmt.Yield stmt) {
+        Evaluator value = stmt.value == null ? env -> null : compile(stmt.value);
+        Token keyword = stmt.keyword;
+
+        return env -> AcaciaGenerator.yield(value.evaluate(env), keyword);
+    }
+
+
+    /* --- Utility methods --- */
+
+    // Compiles a list of statements into one that runs them in order, in the same environment
+    private Executor sequence(List<Stmt> statements) {
+        Executor[] executors = new Executor[statements.size()];
+        for (int i = 0; i < executors.length; i++) {
+            executors[i] = compile(statements.get(i));
+        }
+
+        if (executors.length == 1) return executors[0];
+        return env -> {
+            for (Executor executor : executors) {
+                executor.execute(env);
+            }
+        };
+    }
+
+    // Compiles a list of expressions, keeping their order
+    private Evaluator[] compileAll(List<Expr> exprs) {
+        Evaluator[] evaluators = new Evaluator[exprs.size()];
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluators[i] = compile(exprs.get(i));
+        }
+        return evaluators;
+    }
+
+    // Goes through every index but the last of a set edit, and gives back the set or array it ends up in
+    private Object walk(Environment env, Token name, Object target, Evaluator[] path) {
+        if (!(target instanceof AcaciaSet) && !(target instanceof AcaciaArray)) {
+            throw new RuntimeError(name, "Failed to index. Only sets and arrays can be indexed and modified.");
+        }
+        Object container = target;
+
+        for (int i = 0; i < path.length - 1; i++) {
+            int index = interpreter.wholeNumber(path[i].evaluate(env), name);
+            Object inner = container instanceof AcaciaArray ?
+                    ((AcaciaArray) container).get(index, name) : ((AcaciaSet) container).get(index);
+            if (!(inner instanceof AcaciaSet) && !(inner instanceof AcaciaArray)) {
+                throw new RuntimeError(name, "Cannot index deeper than " + (i + 1) + ".");
+            }
+            container = inner;
+        }
+
+        return container;
+    }
+
+    // Finds the number an edit points to when it gives an index for every dimension of an array
+    private int cell(Environment env, AcaciaArray array, Token name, Evaluator[] path) {
+        int cell = array.checkedOrigin(path.length, name);
+        for (int i = 0; i < path.length; i++) {
+            cell = array.cell(cell, i, interpreter.wholeNumber(path[i].evaluate(env), name), name);
+        }
+        return cell;
+    }
+
+    // Compiles a variable lookup, straight into the scope the resolver found it in
+    private Evaluator variable(Token name, Expr expr) {
+        Integer distance = interpreter.depthOf(expr);
+        if (distance == null) return env -> globals.get(name);
+
+        int depth = distance;
+        String lexeme = name.lexeme;
+        return env -> env.getAt(depth, lexeme);
+    }
+}
@@ -1,14 +1,19 @@
 package com.edavalos.acacia;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 class Environment {
     // HashMap that holds all identifier->value bindings
     private final Map<String, Object> variables = new HashMap<>();
 
+    // Names still bound to the native they started as, which a program can declare something of its own in place of
+    private final Set<String> natives = new HashSet<>();
+
     // Environment to link global scope to various inner blocks
     final Environment enclosing;
 
@@ -52,7 +57,7 @@ class Environment {
 
     // Saves a new variable, or throws an error if it already exists
     void define(Token name, Object value) {
-        if (variables.containsKey(name.lexeme)) {
+        if (variables.containsKey(name.lexeme) && !natives.remove(name.lexeme)) {
             throw new RuntimeError(name, "Variable '" + name.lexeme + "' already exists.");
         }
 
@@ -83,4 +88,10 @@ class Environment {
     void hardDefine(String name, Object value) {
         variables.put(name, value);
     }
+
+    // Adds a native, which the program can still declare a variable, function or class of the same name in place of
+    void defineNative(String name, Object value) {
+        variables.put(name, value);
+        natives.add(name);
+    }
 }
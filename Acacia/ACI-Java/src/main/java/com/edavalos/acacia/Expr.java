@@ -1,7 +1,6 @@
 package com.edavalos.acacia;
 
 import java.util.List;
-import java.util.Stack;
 
 abstract class Expr {
   interface Visitor<R> {
@@ -18,6 +17,7 @@ abstract class Expr {
     R visitLogicalExpr(Logical expr);
     R visitPutExpr(Put expr);
     R visitSetExpr(Set expr);
+    R visitSliceExpr(Slice expr);
     R visitSuperExpr(Super expr);
     R visitThisExpr(This expr);
     R visitUnaryExpr(Unary expr);
@@ -53,6 +53,10 @@ abstract class Expr {
     final Expr left;
     final Token operator;
     final Expr right;
+
+    ValueType operands;
+    NodeState state = NodeState.UNINITIALIZED;
+    ValueType observed;
   }
 
   static class Call extends Expr {
@@ -70,12 +74,16 @@ abstract class Expr {
     final Expr callee;
     final Token paren;
     final List<Expr> arguments;
+
+    NodeState state = NodeState.UNINITIALIZED;
+    Object target;
+    ValueType receiver;
   }
 
   static class EditSet extends Expr {
-    EditSet(Token name, Stack<Expr> depth, Expr value) {
+    EditSet(Token name, List<Expr> path, Expr value) {
       this.name = name;
-      this.depth = depth;
+      this.path = path;
       this.value = value;
     }
 
@@ -85,7 +93,7 @@ abstract class Expr {
     }
 
     final Token name;
-    final Stack<Expr> depth;
+    final List<Expr> path;
     final Expr value;
   }
 
@@ -102,6 +110,10 @@ abstract class Expr {
 
     final Expr object;
     final Token name;
+
+    NodeState state = NodeState.UNINITIALIZED;
+    Object shape;
+    Object target;
   }
 
   static class Grouping extends Expr {
@@ -130,12 +142,14 @@ abstract class Expr {
 
     final Token var;
     final Token type;
+
+    ValueType operand;
   }
 
   static class IncSet extends Expr {
-    IncSet(Token name, Stack<Expr> depth, Token type) {
+    IncSet(Token name, List<Expr> path, Token type) {
       this.name = name;
-      this.depth = depth;
+      this.path = path;
       this.type = type;
     }
 
@@ -145,7 +159,7 @@ abstract class Expr {
     }
 
     final Token name;
-    final Stack<Expr> depth;
+    final List<Expr> path;
     final Token type;
   }
 
@@ -228,6 +242,25 @@ abstract class Expr {
     final List<Expr> values;
   }
 
+  static class Slice extends Expr {
+    Slice(Expr set, Token bracket, Expr from, Expr to) {
+      this.set = set;
+      this.bracket = bracket;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitSliceExpr(this);
+    }
+
+    final Expr set;
+    final Token bracket;
+    final Expr from;
+    final Expr to;
+  }
+
   static class Super extends Expr {
     Super(Token keyword, Token method) {
       this.keyword = keyword;
@@ -269,6 +302,8 @@ abstract class Expr {
 
     final Token operator;
     final Expr right;
+
+    ValueType operand;
   }
 
   static class Variable extends Expr {
@@ -282,6 +317,9 @@ abstract class Expr {
     }
 
     final Token name;
+
+    NodeState state = NodeState.UNINITIALIZED;
+    int depth;
   }
 
 
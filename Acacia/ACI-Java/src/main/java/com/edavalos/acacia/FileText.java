@@ -0,0 +1,89 @@
+package com.edavalos.acacia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// The text of a file, decoded from UTF-8 a buffer at a time, for natives that go through a file once from start to end
+class FileText {
+    // How many bytes are read from the file at a time
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    final String path;
+    private FileChannel channel;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private boolean endOfFile = false;
+
+    FileText(String path, Token location) {
+        this.path = path;
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        } catch (IOException | RuntimeException exception) {
+            throw Natives.fileError("read", path, exception, location);
+        }
+
+        // Nothing has been decoded yet
+        chars.flip();
+    }
+
+    // The characters decoded so far that haven't been gone through, from its position up to its limit. Its array
+    // can be read directly, as long as its position is moved past whatever was used
+    CharBuffer chars() {
+        return chars;
+    }
+
+    boolean isOpen() {
+        return channel != null;
+    }
+
+    // Decodes the next buffer of the file once every decoded character has been used, giving back false and closing
+    // the file once there's nothing left to decode
+    boolean fill(Token location) {
+        if (endOfFile) {
+            close();
+            return false;
+        }
+
+        chars.clear();
+        try {
+            while (chars.position() == 0 && !endOfFile) {
+                endOfFile = channel.read(bytes) == -1;
+
+                bytes.flip();
+                decoder.decode(bytes, chars, endOfFile);
+                bytes.compact();
+
+                if (endOfFile) decoder.flush(chars);
+            }
+        } catch (IOException exception) {
+            close();
+            throw Natives.fileError("read", path, exception, location);
+        }
+        chars.flip();
+
+        if (chars.hasRemaining()) return true;
+        close();
+        return false;
+    }
+
+    void close() {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing was written through it, so there's nothing that could have been lost
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the bodies of small functions, the ones that just return an expression without calling anything, into
+// closures that can be evaluated right at their call sites, without an environment or a frame of their own
+class Inliner implements Expr.Visitor<Inliner.Body> {
+    // An inlined function body, which reads parameters straight from its arguments
+    interface Body {
+        Object evaluate(Object[] arguments, Environment closure);
+    }
+
+    // How many nodes a returned expression can have and still count as small
+    private static final int MAX_SIZE = 24;
+
+    private final Interpreter interpreter;
+    private final Stmt.Function function;
+    private int size = 0;
+
+    private Inliner(Interpreter interpreter, Stmt.Function function) {
+        this.interpreter = interpreter;
+        this.function = function;
+    }
+
+    // Inlines a function's body, or gives back null if it's too big or does more than return something
+    static Body inline(Interpreter interpreter, Stmt.Function function) {
+        if (function.body.size() != 1 || !(function.body.get(0) instanceof Stmt.Return)) return null;
+
+        Stmt.Return returned = (Stmt.Return) function.body.get(0);
+        if (returned.value == null) return null;
+
+        return new Inliner(interpreter, function).inline(returned.value);
+    }
+
+    private Body inline(Expr expr) {
+        if (++size > MAX_SIZE) return null;
+        return expr.accept(this);
+    }
+
+
+    /* --- Expressions' visitor methods, which give back null for anything that can't be inlined --- */
+
+    @Override
+    public Body visitAssignExpr(Expr.Assign expr) {
+        // Parameters don't exist anywhere once inlined, so they can't be assigned to
+        return null;
+    }
+
+    @Override
+    public Body visitBinaryExpr(Expr.Binary expr) {
+        Body left = inline(expr.left);
+        Body right = inline(expr.right);
+        if (left == null || right == null) return null;
+
+        Token operator = expr.operator;
+        return (arguments, closure) -> {
+            Object a = left.evaluate(arguments, closure);
+            Object b = right.evaluate(arguments, closure);
+            if (a instanceof Double && b instanceof Double) return interpreter.binaryNumbers(operator, (double)a, (double)b);
+            return interpreter.binary(operator, a, b);
+        };
+    }
+
+    @Override
+    public Body visitCallExpr(Expr.Call expr) {
+        return null;
+    }
+
+    @Override
+    public Body visitEditSetExpr(Expr.EditSet expr) {
+        return null;
+    }
+
+    @Override
+    public Body visitGetExpr(Expr.Get expr) {
+        Body object = inline(expr.object);
+        if (object == null) return null;
+
+        Token name = expr.name;
+        return (arguments, closure) -> interpreter.getProperty(object.evaluate(arguments, closure), name);
+    }
+
+    @Override
+    public Body visitGroupingExpr(Expr.Grouping expr) {
+        return inline(expr.expression);
+    }
+
+    @Override
+    public Body visitIncrementExpr(Expr.Increment expr) {
+        return null;
+    }
+
+    @Override
+    public Body visitIncSetExpr(Expr.IncSet expr) {
+        return null;
+    }
+
+    @Override
+    public Body visitIndexExpr(Expr.Index expr) {
+        Body set = inline(expr.set);
+        Body location = inline(expr.location);
+        if (set == null || location == null) return null;
+
+        Token bracket = expr.bracket;
+        return (arguments, closure) -> {
+            int index = interpreter.wholeNumber(location.evaluate(arguments, closure), bracket);
+            return interpreter.index(set.evaluate(arguments, closure), index, bracket);
+        };
+    }
+
+    @Override
+    public Body visitLiteralExpr(Expr.Literal expr) {
+        Object value = expr.value;
+        return (arguments, closure) -> value;
+    }
+
+    @Override
+    public Body visitLogicalExpr(Expr.Logical expr) {
+        Body left = inline(expr.left);
+        Body right = inline(expr.right);
+        if (left == null || right == null) return null;
+
+        boolean or = expr.operator.type == TokenType.OR;
+        return (arguments, closure) -> {
+            Object value = left.evaluate(arguments, closure);
+            if (Acacia.isTruthy(value) == or) return value;
+            return right.evaluate(arguments, closure);
+        };
+    }
+
+    @Override
+    public Body visitPutExpr(Expr.Put expr) {
+        Body object = inline(expr.object);
+        Body value = inline(expr.value);
+        if (object == null || value == null) return null;
+
+        Token name = expr.name;
+        return (arguments, closure) -> {
+            Object instance = object.evaluate(arguments, closure);
+            if (!(instance instanceof AcaciaInstance)) {
+                throw new RuntimeError(name, "Only instances have fields.");
+            }
+
+            Object result = value.evaluate(arguments, closure);
+            ((AcaciaInstance) instance).put(name, result);
+            return result;
+        };
+    }
+
+    @Override
+    public Body visitSetExpr(Expr.Set expr) {
+        List<Body> values = new ArrayList<>();
+        for (Expr value : expr.values) {
+            Body body = inline(value);
+            if (body == null) return null;
+            values.add(body);
+        }
+
+        return (arguments, closure) -> {
+            List<Object> contents = new ArrayList<>(values.size());
+            for (Body value : values) {
+                contents.add(value.evaluate(arguments, closure));
+            }
+            return new AcaciaSet(contents);
+        };
+    }
+
+    @Override
+    public Body visitSliceExpr(Expr.Slice expr) {
+        Body set = inline(expr.set);
+        Body from = inline(expr.from);
+        Body to = inline(expr.to);
+        if (set == null || from == null || to == null) return null;
+
+        Token bracket = expr.bracket;
+        return (arguments, closure) -> {
+            Object sliced = set.evaluate(arguments, closure);
+            return interpreter.slice(sliced, from.evaluate(arguments, closure), to.evaluate(arguments, closure),
+                                     bracket);
+        };
+    }
+
+    @Override
+    public Body visitSuperExpr(Expr.Super expr) {
+        return null;
+    }
+
+    @Override
+    public Body visitThisExpr(Expr.This expr) {
+        return variable(expr.keyword, expr);
+    }
+
+    @Override
+    public Body visitUnaryExpr(Expr.Unary expr) {
+        Body right = inline(expr.right);
+        if (right == null) return null;
+
+        Token operator = expr.operator;
+        if (operator.type == TokenType.BANG) return (arguments, closure) -> !Acacia.isTruthy(right.evaluate(arguments, closure));
+
+        return (arguments, closure) -> {
+            Object value = right.evaluate(arguments, closure);
+            if (!(value instanceof Double)) throw new RuntimeError(operator, "Operand must be a number.");
+            return -(double) value;
+        };
+    }
+
+    @Override
+    public Body visitVariableExpr(Expr.Variable expr) {
+        return variable(expr.name, expr);
+    }
+
+
+    /* --- Utility methods --- */
+
+    // Reads a parameter from the arguments, and anything else from the scope it was resolved to
+    private Body variable(Token name, Expr expr) {
+        Integer distance = interpreter.depthOf(expr);
+        if (distance == null) return (arguments, closure) -> interpreter.globals.get(name);
+
+        // The function's own scope only ever holds its parameters, since all it does is return
+        if (distance == 0) {
+            for (int i = 0; i < function.params.size(); i++) {
+                if (function.params.get(i).lexeme.equals(name.lexeme)) {
+                    int index = i;
+                    return (arguments, closure) -> arguments[index];
+                }
+            }
+            return null;
+        }
+
+        int depth = distance - 1;
+        String lexeme = name.lexeme;
+        return (arguments, closure) -> closure.getAt(depth, lexeme);
+    }
+}
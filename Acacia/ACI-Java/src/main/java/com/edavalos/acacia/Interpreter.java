@@ -10,6 +10,16 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     private String tempStr = null;
     private AcaciaSet tempSet = null;
 
+    private int callDepth = 0;
+
+    // String methods are only ever looked up on strings, so they're kept apart from the globals
+    private static final Map<String, AcaciaCallable> stringMethods = new HashMap<>();
+    static {
+        for (AcaciaCallable stringMethod : Natives.stringMethods) {
+            stringMethods.put(stringMethod.name(), stringMethod);
+        }
+    }
+
     // When the interpreter is fired up, add all the built in functions to the environment
     Interpreter() {
         // Program arguments
@@ -17,14 +27,9 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
             globals.hardDefine("args", new AcaciaSet(Arrays.asList(Acacia.sysArgs.split(" "))));
         }
 
-        // Native functions
+        // Native functions, whose names the program is free to use for its own things instead
         for (AcaciaCallable nativeFunction : Natives.functions) {
-            globals.hardDefine(nativeFunction.name(), nativeFunction);
-        }
-
-        // String methods
-        for (AcaciaCallable nativeFunction : Natives.stringMethods) {
-            globals.hardDefine(nativeFunction.name(), nativeFunction);
+            globals.defineNative(nativeFunction.name(), nativeFunction);
         }
     }
 
@@ -39,6 +44,15 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         }
     }
 
+    // Runs statements that were compiled ahead of time, instead of walking them
+    void interpret(Compiler.Executor program) {
+        try {
+            program.execute(globals);
+        } catch (RuntimeError error) {
+            Acacia.error(error);
+        }
+    }
+
 
     /* --- Expressions' visitor methods --- */
 
@@ -47,10 +61,34 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         Object left = evaluate(expr.left);
         Object right = evaluate(expr.right);
 
-        return switch (expr.operator.type) {
+        // If both operands were proven ahead of time to be numbers or strings, no need to check them
+        if (expr.operands == ValueType.NUMBER) return binaryNumbers(expr.operator, (double)left, (double)right);
+        if (expr.operands == ValueType.STRING) return binaryStrings(expr.operator, (String)left, (String)right);
+
+        // Otherwise, specialize on the operand types seen the first time around, until they change
+        if (Acacia.specialize) {
+            if (expr.state == NodeState.UNINITIALIZED) specialize(expr, left, right);
+
+            if (expr.state == NodeState.SPECIALIZED) {
+                if (expr.observed == ValueType.NUMBER && left instanceof Double && right instanceof Double) {
+                    return binaryNumbers(expr.operator, (double)left, (double)right);
+                }
+                if (expr.observed == ValueType.STRING && left instanceof String && right instanceof String) {
+                    return binaryStrings(expr.operator, (String)left, (String)right);
+                }
+                expr.state = NodeState.GENERIC;
+            }
+        }
+
+        return binary(expr.operator, left, right);
+    }
+
+    // Applies a binary operator to any two values, checking that they can be operated on
+    Object binary(Token operator, Object left, Object right) {
+        return switch (operator.type) {
             // If minus, assume both are numbers and return difference (num)
             case MINUS -> {
-                validateNumbers(expr.operator, left, right);
+                validateNumbers(operator, left, right);
                 yield (double)left - (double)right;
             }
             // If addition, add numbers together, and concatenate strings
@@ -63,27 +101,27 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
                     yield Acacia.stringify(left) + Acacia.stringify(right);
                 }
                 // If values are neither both numbers or one string, throw error
-                throw new RuntimeError(expr.operator, "Operands must either all be numbers or" +
+                throw new RuntimeError(operator, "Operands must either all be numbers or" +
                         " at least one must be a string.");
             }
             // If division, assume both are numbers and return quotient (num)
             case SLASH ->  {
-                validateNumbers(expr.operator, left, right);
+                validateNumbers(operator, left, right);
                 yield (double)left / (double)right;
             }
             // If multiplication, assume both are numbers and return product (num)
             case STAR ->  {
-                validateNumbers(expr.operator, left, right);
+                validateNumbers(operator, left, right);
                 yield (double)left * (double)right;
             }
             // If modulo, assume both are numbers and return remainder (num)
             case MODULO ->  {
-                validateNumbers(expr.operator, left, right);
+                validateNumbers(operator, left, right);
                 yield (double)left % (double)right;
             }
             // If caret, assume both are numbers and return remainder (num)
             case CARET ->  {
-                validateNumbers(expr.operator, left, right);
+                validateNumbers(operator, left, right);
                 yield Math.pow((double)left, (double)right);
             }
 
@@ -97,7 +135,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
                     yield ((String)left).length() > ((String)right).length();
                 }
                 // If values are neither type number or string, throw error
-                throw new RuntimeError(expr.operator, "Operands must both be numbers or strings.");
+                throw new RuntimeError(operator, "Operands must both be numbers or strings.");
             }
             case GREATER_EQUAL -> {
                 if (left instanceof Double && right instanceof Double) {
@@ -108,7 +146,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
                     yield ((String)left).length() >= ((String)right).length();
                 }
                 // If values are neither type number or string, throw error
-                throw new RuntimeError(expr.operator, "Operands must both be numbers or strings.");
+                throw new RuntimeError(operator, "Operands must both be numbers or strings.");
             }
             case LESS -> {
                 if (left instanceof Double && right instanceof Double) {
@@ -119,7 +157,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
                     yield ((String)left).length() < ((String)right).length();
                 }
                 // If values are neither type number or string, throw error
-                throw new RuntimeError(expr.operator, "Operands must both be numbers or strings.");
+                throw new RuntimeError(operator, "Operands must both be numbers or strings.");
             }
             case LESS_EQUAL -> {
                 if (left instanceof Double && right instanceof Double) {
@@ -130,7 +168,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
                     yield ((String)left).length() <= ((String)right).length();
                 }
                 // If values are neither type number or string, throw error
-                throw new RuntimeError(expr.operator, "Operands must both be numbers or strings.");
+                throw new RuntimeError(operator, "Operands must both be numbers or strings.");
             }
 
             // If equality comparison, return equality value (bool)
@@ -141,73 +179,198 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         };
     }
 
+    // Settles on the operand types a binary expression will take a shortcut for
+    private void specialize(Expr.Binary expr, Object left, Object right) {
+        ValueType type = ValueType.of(left);
+        boolean arithmetic = switch (expr.operator.type) {
+            case MINUS, SLASH, STAR, MODULO, CARET -> true;
+            default -> false;
+        };
+
+        if (type == ValueType.of(right) && (type == ValueType.NUMBER || (type == ValueType.STRING && !arithmetic))) {
+            expr.state = NodeState.SPECIALIZED;
+            expr.observed = type;
+        } else {
+            expr.state = NodeState.GENERIC;
+        }
+    }
+
+    // Applies a binary operator to two values already known to be numbers
+    Object binaryNumbers(Token operator, double left, double right) {
+        return switch (operator.type) {
+            case MINUS -> left - right;
+            case PLUS -> left + right;
+            case SLASH -> left / right;
+            case STAR -> left * right;
+            case MODULO -> left % right;
+            case CARET -> Math.pow(left, right);
+
+            case GREATER -> left > right;
+            case GREATER_EQUAL -> left >= right;
+            case LESS -> left < right;
+            case LESS_EQUAL -> left <= right;
+
+            // Same as comparing the boxed numbers with isEqual()
+            case BANG_EQUAL -> Double.compare(left, right) != 0;
+            case EQUAL_EQUAL -> Double.compare(left, right) == 0;
+
+            default -> null;
+        };
+    }
+
+    // Applies a binary operator to two values already known to be strings
+    private Object binaryStrings(Token operator, String left, String right) {
+        return switch (operator.type) {
+            case PLUS -> left + right;
+
+            case GREATER -> left.length() > right.length();
+            case GREATER_EQUAL -> left.length() >= right.length();
+            case LESS -> left.length() < right.length();
+            case LESS_EQUAL -> left.length() <= right.length();
+
+            case BANG_EQUAL -> !left.equals(right);
+            case EQUAL_EQUAL -> left.equals(right);
+
+            default -> null;
+        };
+    }
+
     @Override
     public Object visitCallExpr(Expr.Call expr) {
         Object callee = evaluate(expr.callee);
 
-        List<Object> arguments = new ArrayList<>();
-        for (Expr argument : expr.arguments) {
-            arguments.add(evaluate(argument));
+        Object[] arguments = new Object[expr.arguments.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = evaluate(expr.arguments.get(i));
+        }
+
+        // A call that keeps calling the same thing already knows it takes these arguments
+        if (Acacia.specialize && expr.state == NodeState.SPECIALIZED) {
+            if (callee instanceof AcaciaFunction && ((AcaciaFunction) callee).declaration == expr.target) {
+                AcaciaFunction function = (AcaciaFunction) callee;
+
+                // Small functions are evaluated right where they're called
+                Inliner.Body body = function.inlined(this);
+                if (body != null) return function.evaluateInlined(body, arguments);
+
+                return function.call(this, arguments, expr.paren);
+            }
+            if (callee == expr.target) {
+                return ((AcaciaCallable) callee).call(this, withReceiver(expr.receiver, arguments, expr.paren),
+                                                      expr.paren);
+            }
+            expr.state = NodeState.GENERIC;
+        }
+
+        AcaciaCallable function = checkCall(callee, arguments.length, expr.paren);
+        ValueType receiver = receiverOf(function);
+
+        if (Acacia.specialize && expr.state == NodeState.UNINITIALIZED) {
+            expr.state = NodeState.SPECIALIZED;
+            expr.target = callee instanceof AcaciaFunction ? ((AcaciaFunction) callee).declaration : callee;
+            expr.receiver = receiver;
+        }
+
+        return function.call(this, withReceiver(receiver, arguments, expr.paren), expr.paren);
+    }
+
+    // Calls anything callable with the given arguments, making sure it can be called with them
+    Object call(Object callee, Object[] arguments, Token paren) {
+        AcaciaCallable function = checkCall(callee, arguments.length, paren);
+        return function.call(this, withReceiver(receiverOf(function), arguments, paren), paren);
+    }
+
+    // Returns a call to a function without making it, so that it's made once the function returning it has been left
+    Return tailCall(Object callee, Object[] arguments, Token paren) {
+        AcaciaCallable function = checkCall(callee, arguments.length, paren);
+
+        // Calling a generator function only makes a generator, so there's no call to hand off
+        if (function instanceof AcaciaFunction && !((AcaciaFunction) function).declaration.generator) {
+            return new Return((AcaciaFunction) function, arguments, paren);
         }
 
+        return new Return(function.call(this, withReceiver(receiverOf(function), arguments, paren), paren));
+    }
+
+    // Keeps count of how many function calls deep the program is, up to the limit it's allowed
+    void enterCall(Token location) {
+        if (++callDepth > Acacia.maxDepth && Acacia.maxDepth > 0) {
+            callDepth--;
+            throw new RuntimeError(location, "Maximum call depth of " + Acacia.maxDepth + " exceeded.");
+        }
+    }
+
+    void exitCall() {
+        callDepth--;
+    }
+
+    // Makes sure something is callable, and takes the given number of arguments
+    private AcaciaCallable checkCall(Object callee, int argumentCount, Token paren) {
         if (!(callee instanceof AcaciaCallable)) {
-            throw new RuntimeError(expr.paren, "Can only call functions and classes.");
+            throw new RuntimeError(paren, "Can only call functions and classes.");
         }
 
         AcaciaCallable function = (AcaciaCallable)callee;
-        if ((function.arity() != -1) && (arguments.size() != function.arity())) {
-            throw new RuntimeError(expr.paren, "Expected " +
+        if ((function.arity() != -1) && (argumentCount != function.arity())) {
+            throw new RuntimeError(paren, "Expected " +
                     function.arity() + " arguments but got " +
-                    arguments.size() + " (in '" + Acacia.stringify(callee) + "').");
+                    argumentCount + " (in '" + Acacia.stringify(callee) + "').");
         }
+        return function;
+    }
 
-        if (Natives.setMethods.contains(function)) {
-            if (tempSet == null) throw new RuntimeError(expr.paren, "Set method could not find set to preform on.");
-            arguments.add(0, tempSet);
-            tempSet = null;
-        }
+    // Set and string methods get the set or string they were looked up on as their first argument
+    private ValueType receiverOf(AcaciaCallable function) {
+        if (function instanceof AcaciaFunction) return null;
 
-        else if (Natives.stringMethods.contains(function)) {
-            if (tempStr == null)  throw new RuntimeError(expr.paren, "String method could not find string to preform on.");
-            arguments.add(0, tempStr);
-            tempStr = null;
+        if (Natives.setMethods.contains(function)) return ValueType.SET;
+        if (Natives.stringMethods.contains(function)) return ValueType.STRING;
 
-        }
+        return null;
+    }
 
+    // Puts the set or string a method was looked up on in front of the arguments it's called with
+    private Object[] withReceiver(ValueType receiver, Object[] arguments, Token paren) {
+        if (receiver == null) return arguments;
 
+        Object[] withReceiver = new Object[arguments.length + 1];
+        withReceiver[0] = receiver == ValueType.SET ? takeSet(paren) : takeString(paren);
+        System.arraycopy(arguments, 0, withReceiver, 1, arguments.length);
+        return withReceiver;
+    }
+
+    // Hands over the set a set method was looked up on
+    private AcaciaSet takeSet(Token paren) {
+        if (tempSet == null) throw new RuntimeError(paren, "Set method could not find set to preform on.");
+        AcaciaSet set = tempSet;
+        tempSet = null;
+        return set;
+    }
 
-        return function.call(this, arguments, expr.paren);
+    // Hands over the string a string method was looked up on
+    private String takeString(Token paren) {
+        if (tempStr == null)  throw new RuntimeError(paren, "String method could not find string to preform on.");
+        String str = tempStr;
+        tempStr = null;
+        return str;
     }
 
     @Override
     public Object visitEditSetExpr(Expr.EditSet expr) {
         Object value = evaluate(expr.value);
+        Object target = lookUpVariable(expr.name, expr);
 
-        Object var = environment.get(expr.name);
-        if (!(var instanceof AcaciaSet)) {
-            throw new RuntimeError(expr.name, "Failed to index. Only sets can be indexed and modified.");
+        if (target instanceof AcaciaArray && ((AcaciaArray) target).rank() == expr.path.size()) {
+            AcaciaArray array = ((AcaciaArray) target);
+            array.store(cell(array, expr.name, expr.path), value, expr.name);
+            return value;
         }
-        AcaciaSet set = ((AcaciaSet) var);
-        int ctr = 1;
 
-        while (expr.depth.size() > 1) {
-            Object idx = evaluate(expr.depth.pop());
-            if ((!(idx instanceof Double)) || (((Double) idx) != Math.floor((Double) idx))) {
-                throw new RuntimeError(expr.name, "Index must be a whole number.");
-            }
-            Object inner = set.get((int) Math.round((Double) idx));
-            if (!(inner instanceof AcaciaSet)) {
-                throw new RuntimeError(expr.name, "Cannot index deeper than " + ctr + ".");
-            }
-            set = ((AcaciaSet) inner);
-            ctr++;
-        }
+        Object container = walk(expr.name, target, expr.path);
+        int index = wholeNumber(evaluate(expr.path.get(expr.path.size() - 1)), expr.name);
 
-        Object idx = evaluate(expr.depth.pop());
-        if ((!(idx instanceof Double)) || (((Double) idx) != Math.floor((Double) idx))) {
-            throw new RuntimeError(expr.name, "Index must be a whole number.");
-        }
-        set.put((int) Math.round((Double) idx), value);
+        if (container instanceof AcaciaArray) ((AcaciaArray) container).put(index, value, expr.name);
+        else ((AcaciaSet) container).put(index, value);
 
         return value;
     }
@@ -216,25 +379,89 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     public Object visitGetExpr(Expr.Get expr) {
         Object object = evaluate(expr.object);
 
+        // Methods are looked up once per kind of object, for as long as it stays the same kind
+        if (Acacia.specialize && expr.state == NodeState.SPECIALIZED) {
+            if (expr.shape == AcaciaSet.class && object instanceof AcaciaSet) {
+                tempSet = ((AcaciaSet) object);
+                return expr.target;
+            }
+            if (object instanceof AcaciaInstance && ((AcaciaInstance) object).klass == expr.shape &&
+                    !((AcaciaInstance) object).hasField(expr.name)) {
+                return ((AcaciaFunction) expr.target).bind((AcaciaInstance) object);
+            }
+            expr.state = NodeState.GENERIC;
+        }
+
+        Object property = getProperty(object, expr.name);
+
+        if (Acacia.specialize && expr.state == NodeState.UNINITIALIZED) {
+            specialize(expr, object);
+        }
+        return property;
+    }
+
+    // Settles on the kind of object a property lookup will take a shortcut for
+    private void specialize(Expr.Get expr, Object object) {
+        expr.state = NodeState.SPECIALIZED;
+
+        if (object instanceof AcaciaSet) {
+            expr.shape = AcaciaSet.class;
+            expr.target = ((AcaciaSet) object).findMethod(expr.name);
+        }
+        else if (object instanceof AcaciaInstance && !((AcaciaInstance) object).hasField(expr.name)) {
+            expr.shape = ((AcaciaInstance) object).klass;
+            expr.target = ((AcaciaInstance) object).klass.findMethod(expr.name.lexeme);
+        }
+        else {
+            // Fields differ from instance to instance, and string methods are plain globals,
+            // so there's nothing to take a shortcut for
+            expr.state = NodeState.GENERIC;
+        }
+    }
+
+    // Looks up a property, or method, of an object
+    Object getProperty(Object object, Token name) {
         if (object instanceof AcaciaSet) {
             tempSet = ((AcaciaSet) object);
-            return ((AcaciaSet) object).findMethod(expr.name);
+            return ((AcaciaSet) object).findMethod(name);
         }
 
         if (object instanceof AcaciaInstance) {
-            return ((AcaciaInstance) object).get(expr.name);
+            return ((AcaciaInstance) object).get(name);
+        }
+
+        if (object instanceof AcaciaGenerator) {
+            return ((AcaciaGenerator) object).findMethod(name);
+        }
+
+        if (object instanceof AcaciaWriter) {
+            return ((AcaciaWriter) object).findMethod(name);
+        }
+
+        if (object instanceof AcaciaMapped) {
+            return ((AcaciaMapped) object).findMethod(name);
+        }
+
+        if (object instanceof AcaciaBytes) {
+            return ((AcaciaBytes) object).findMethod(name);
+        }
+
+        if (object instanceof AcaciaJsonEvents) {
+            return ((AcaciaJsonEvents) object).findMethod(name);
+        }
+
+        if (object instanceof AcaciaStore) {
+            return ((AcaciaStore) object).findMethod(name);
         }
 
         if (object instanceof String) {
-            Object method = globals.get(expr.name);
-            if (!(method instanceof AcaciaCallable)) {
-                throw new RuntimeError(expr.name, "Undefined string method '" + expr.name.lexeme + "'.");
-            }
+            AcaciaCallable method = stringMethods.get(name.lexeme);
+            if (method == null) throw new RuntimeError(name, "Undefined string method '" + name.lexeme + "'.");
             tempStr = ((String) object);
             return method;
         }
 
-        throw new RuntimeError(expr.name, "Only instances have properties.");
+        throw new RuntimeError(name, "Only instances have properties.");
     }
 
     @Override
@@ -245,7 +472,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     @Override
     public Object visitIncrementExpr(Expr.Increment expr) {
         Object currentValue = lookUpVariable(expr.var, expr);
-        if (!(currentValue instanceof Double)) {
+        if (expr.operand != ValueType.NUMBER && !(currentValue instanceof Double)) {
             throw new RuntimeError(expr.type, "Invalid increment target.");
         }
 
@@ -269,59 +496,85 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Object visitIncSetExpr(Expr.IncSet expr) {
-        Object var = environment.get(expr.name);
-        if (!(var instanceof AcaciaSet)) {
-            throw new RuntimeError(expr.name, "Failed to index. Only sets can be indexed and modified.");
-        }
-        AcaciaSet set = ((AcaciaSet) var);
-        int ctr = 1;
+        Object target = lookUpVariable(expr.name, expr);
 
-        while (expr.depth.size() > 1) {
-            Object idx = evaluate(expr.depth.pop());
-            if ((!(idx instanceof Double)) || (((Double) idx) != Math.floor((Double) idx))) {
-                throw new RuntimeError(expr.name, "Index must be a whole number.");
-            }
-            Object inner = set.get((int) Math.round((Double) idx));
-            if (!(inner instanceof AcaciaSet)) {
-                throw new RuntimeError(expr.name, "Cannot index deeper than " + ctr + ".");
-            }
-            set = ((AcaciaSet) inner);
-            ctr++;
+        if (target instanceof AcaciaArray && ((AcaciaArray) target).rank() == expr.path.size()) {
+            AcaciaArray array = ((AcaciaArray) target);
+            return array.increment(cell(array, expr.name, expr.path), expr.type);
         }
 
-        Object idx = evaluate(expr.depth.pop());
-        if ((!(idx instanceof Double)) || (((Double) idx) != Math.floor((Double) idx))) {
-            throw new RuntimeError(expr.name, "Index must be a whole number.");
-        }
+        Object container = walk(expr.name, target, expr.path);
+        int index = wholeNumber(evaluate(expr.path.get(expr.path.size() - 1)), expr.name);
 
-        return set.inc((int) Math.round((Double) idx), expr.type);
+        if (container instanceof AcaciaArray) return ((AcaciaArray) container).inc(index, expr.type);
+        return ((AcaciaSet) container).inc(index, expr.type);
     }
 
     @Override
     public Object visitIndexExpr(Expr.Index expr) {
-        Object idx = evaluate(expr.location);
+        int index = wholeNumber(evaluate(expr.location), expr.bracket);
+        Object set = evaluate(expr.set);
+
+        return index(set, index, expr.bracket);
+    }
+
+    // Makes sure a value can be used as an index, and turns it into one
+    int wholeNumber(Object idx, Token token) {
         if ((!(idx instanceof Double)) || (((Double) idx) != Math.floor((Double) idx))) {
-            throw new RuntimeError(expr.bracket, "Index must be a whole number.");
+            throw new RuntimeError(token, "Index must be a whole number.");
         }
-        int index = (int) Math.round(((Double) idx));
+        return (int) Math.round(((Double) idx));
+    }
 
-        Object set = evaluate(expr.set);
+    // Goes through every index but the last of a set edit, and gives back the set or array it ends up in
+    private Object walk(Token name, Object target, List<Expr> path) {
+        if (!(target instanceof AcaciaSet) && !(target instanceof AcaciaArray)) {
+            throw new RuntimeError(name, "Failed to index. Only sets and arrays can be indexed and modified.");
+        }
+        Object container = target;
+
+        for (int i = 0; i < path.size() - 1; i++) {
+            int index = wholeNumber(evaluate(path.get(i)), name);
+            Object inner = container instanceof AcaciaArray ?
+                    ((AcaciaArray) container).get(index, name) : ((AcaciaSet) container).get(index);
+            if (!(inner instanceof AcaciaSet) && !(inner instanceof AcaciaArray)) {
+                throw new RuntimeError(name, "Cannot index deeper than " + (i + 1) + ".");
+            }
+            container = inner;
+        }
+
+        return container;
+    }
+
+    // Finds the number an edit points to when it gives an index for every dimension of an array
+    private int cell(AcaciaArray array, Token name, List<Expr> path) {
+        int cell = array.checkedOrigin(path.size(), name);
+        for (int i = 0; i < path.size(); i++) {
+            cell = array.cell(cell, i, wholeNumber(evaluate(path.get(i)), name), name);
+        }
+        return cell;
+    }
 
+    // Gets the element of a set, or character of a string, at a given index
+    Object index(Object set, int index, Token bracket) {
         if (set instanceof AcaciaSet) {
             return ((AcaciaSet) set).get(index);
         }
 
+        else if (set instanceof AcaciaIterable) {
+            return ((AcaciaIterable) set).get(index, bracket);
+        }
+
         else if (set instanceof String) {
             int length = ((String) set).length();
 
-            if (index >= 0) return ((String) set).charAt(index % length) + "";
-            else return ((String) set).charAt(index + length) + "";
+            if (index >= 0) return Acacia.character(((String) set).charAt(index % length));
+            else return Acacia.character(((String) set).charAt(index + length));
         }
 
         else {
-            throw new RuntimeError(expr.bracket, "Failed to index. Only sets and strings can be indexed.");
+            throw new RuntimeError(bracket, "Failed to index. Only sets, arrays, ranges and strings can be indexed.");
         }
-
     }
 
     @Override
@@ -338,6 +591,38 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return new AcaciaSet(contents);
     }
 
+    @Override
+    public Object visitSliceExpr(Expr.Slice expr) {
+        Object set = evaluate(expr.set);
+        Object from = evaluate(expr.from);
+        Object to = evaluate(expr.to);
+
+        return slice(set, from, to, expr.bracket);
+    }
+
+    // Gets the elements of a set or bytes, or characters of a string, from one index up to (not including) another.
+    // Nil stands for the start or the end, and indices past either end are moved back to it
+    Object slice(Object set, Object from, Object to, Token bracket) {
+        int length;
+        if (set instanceof AcaciaSet || set instanceof AcaciaBytes) length = ((AcaciaIterable) set).cSize();
+        else if (set instanceof String) length = ((String) set).length();
+        else throw new RuntimeError(bracket, "Failed to slice. Only sets, bytes and strings can be sliced.");
+
+        int start = from == null ? 0 : bound(wholeNumber(from, bracket), length);
+        int end = to == null ? length : bound(wholeNumber(to, bracket), length);
+        if (end < start) end = start;
+
+        if (set instanceof String) return ((String) set).substring(start, end);
+        if (set instanceof AcaciaBytes) return ((AcaciaBytes) set).slice(start, end);
+        return ((AcaciaSet) set).slice(start, end);
+    }
+
+    // Counts a negative slice index back from the end, and keeps it within the set or string
+    private static int bound(int index, int length) {
+        if (index < 0) index += length;
+        return Math.max(0, Math.min(index, length));
+    }
+
     @Override
     public Object visitSuperExpr(Expr.Super expr) {
         int distance = locals.get(expr);
@@ -389,7 +674,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return switch (expr.operator.type) {
             // If unary is a minus, assume value is a number and return its negation
             case MINUS -> {
-                validateNumbers(expr.operator, right);
+                if (expr.operand != ValueType.NUMBER) validateNumbers(expr.operator, right);
                 yield -(double) right;
             }
 
@@ -402,6 +687,20 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Object visitVariableExpr(Expr.Variable expr) {
+        // The scope a variable lives in never changes, so it's only looked up the first time around
+        if (Acacia.specialize) {
+            if (expr.state == NodeState.SPECIALIZED) return environment.getAt(expr.depth, expr.name.lexeme);
+            if (expr.state == NodeState.GENERIC) return globals.get(expr.name);
+
+            Integer distance = locals.get(expr);
+            if (distance != null) {
+                expr.state = NodeState.SPECIALIZED;
+                expr.depth = distance;
+            } else {
+                expr.state = NodeState.GENERIC;
+            }
+        }
+
         return lookUpVariable(expr.name, expr);
     }
 
@@ -440,27 +739,27 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         }
 
         Object iterable = evaluate(stmt.iterable);
-        if (!(iterable instanceof String) && !(iterable instanceof AcaciaSet)) {
-            throw new RuntimeError(stmt.iterableName, "'" + stmt.iterableName.lexeme + "' is not a set " +
-                    "or a string, and therefore not iterable.");
+        if (!(iterable instanceof String) && !(iterable instanceof AcaciaIterable)) {
+            foreachIterator(stmt, iteratorOf(iterable, stmt.iterableName), logIndex);
+            return null;
         }
 
         int size;
         int index = 0;
-        boolean isSet;
         if (iterable instanceof String) {
             size = ((String) iterable).length();
-            isSet = false;
         } else {
-            size = ((AcaciaSet) iterable).cSize();
-            isSet = true;
+            size = ((AcaciaIterable) iterable).cSize();
         }
 
         while (index < size) {
-            if (isSet) {
-                environment.assign(stmt.iterator, ((AcaciaSet) iterable).get(index));
+            if (iterable instanceof AcaciaRange) {
+                // Ranges work out each number as it's needed, so nothing is kept for the whole loop
+                environment.assign(stmt.iterator, ((AcaciaRange) iterable).at(index));
+            } else if (iterable instanceof AcaciaIterable) {
+                environment.assign(stmt.iterator, ((AcaciaIterable) iterable).get(index, stmt.iterableName));
             } else {
-                environment.assign(stmt.iterator, ((String) iterable).charAt(index) + "");
+                environment.assign(stmt.iterator, Acacia.character(((String) iterable).charAt(index)));
             }
 
             try {
@@ -478,6 +777,59 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return null;
     }
 
+    // Goes through something that hands out its elements one at a time, for as long as it has more
+    private void foreachIterator(Stmt.Foreach stmt, AcaciaIterator iterator, boolean logIndex) {
+        int index = 0;
+        try {
+            while (iterator.hasNext(stmt.iterableName)) {
+                environment.assign(stmt.iterator, iterator.next(stmt.iterableName));
+
+                try {
+                    execute(stmt.body);
+                } catch (Exit x) {
+                    break;
+                } catch (Next x) {
+                    continue;
+                } finally {
+                    index++;
+                    if (logIndex)
+                        environment.assign(stmt.index, index);
+                }
+            }
+        } finally {
+            iterator.close();
+        }
+    }
+
+    // Gets something to iterate over one element at a time, which is either a generator or an instance with
+    // 'hasNext()' and 'getNext()' methods ('next' is taken by the keyword)
+    AcaciaIterator iteratorOf(Object iterable, Token name) {
+        if (iterable instanceof AcaciaIterator) return ((AcaciaIterator) iterable);
+
+        if (!(iterable instanceof AcaciaInstance)) {
+            throw new RuntimeError(name, "'" + name.lexeme + "' is not a set, an array, a range, a string or " +
+                    "an iterator, and therefore not iterable.");
+        }
+
+        AcaciaInstance instance = ((AcaciaInstance) iterable);
+        Object hasNext = instance.get(new Token(TokenType.IDENTIFIER, "hasNext", null, name.line, name.column,
+                                                name.length));
+        Object next = instance.get(new Token(TokenType.IDENTIFIER, "getNext", null, name.line, name.column,
+                                             name.length));
+
+        return new AcaciaIterator() {
+            @Override
+            public boolean hasNext(Token location) {
+                return isTruthy(call(hasNext, new Object[0], location));
+            }
+
+            @Override
+            public Object next(Token location) {
+                return call(next, new Object[0], location);
+            }
+        };
+    }
+
     @Override
     public Void visitFunctionStmt(Stmt.Function stmt) {
         AcaciaFunction function = new AcaciaFunction(stmt, environment, false);
@@ -525,6 +877,18 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Void visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.tail) {
+            Expr.Call call = (Expr.Call) stmt.value;
+            Object callee = evaluate(call.callee);
+
+            Object[] arguments = new Object[call.arguments.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = evaluate(call.arguments.get(i));
+            }
+
+            throw tailCall(callee, arguments, call.paren);
+        }
+
         Object value = null;
         if (stmt.value != null) value = evaluate(stmt.value);
 
@@ -560,6 +924,15 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return null;
     }
 
+    @Override
+    public Void visitYieldStmt(Stmt.Yield stmt) {
+        Object value = null;
+        if (stmt.value != null) value = evaluate(stmt.value);
+
+        AcaciaGenerator.yield(value, stmt.keyword);
+        return null;
+    }
+
     @Override
     public Void visitBlockStmt(Stmt.Block stmt) {
         executeBlock(stmt.statements, new Environment(environment));
@@ -623,6 +996,22 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         locals.put(expr, depth);
     }
 
+    // Moves the stored depth of an expression over to another one that replaces it
+    void relink(Expr original, Expr replacement) {
+        Integer depth = locals.remove(original);
+        if (depth != null) locals.put(replacement, depth);
+    }
+
+    // Gets the number of environments deep an expression was resolved to, or null if it's global
+    Integer depthOf(Expr expr) {
+        return locals.get(expr);
+    }
+
+    // Evaluates an expression made up only of literals, so it can be folded ahead of time
+    Object evaluateConstant(Expr expr) {
+        return evaluate(expr);
+    }
+
     // Looks for a variable in its respective scope
     private Object lookUpVariable(Token name, Expr expr) {
         Integer distance = locals.get(expr);
@@ -633,6 +1022,15 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         }
     }
 
+    // Lets a generator's body swap the scope it's running in with its caller's as they take turns
+    Environment currentEnvironment() {
+        return environment;
+    }
+
+    void restoreEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
     // Loops thru a list of statements in a block and executes them, also handles variable scoping and returns (breaks)
     void executeBlock(List<Stmt> statements, Environment environment) {
         Environment previous = this.environment;
@@ -653,7 +1051,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     }
 
     // Determined whether two values are equal
-    private boolean isEqual(Object a, Object b) {
+    boolean isEqual(Object a, Object b) {
         if (a == null && b == null) return true;
         if (a == null) return false;
 
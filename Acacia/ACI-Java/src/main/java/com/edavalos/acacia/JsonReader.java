@@ -0,0 +1,332 @@
+package com.edavalos.acacia;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads JSON from a string or a file, a character at a time straight out of its buffer. Objects become instances of
+// the json class with a field for each key, arrays become sets, and null becomes nil
+class JsonReader {
+    // The class that every object read from JSON is an instance of
+    static final AcaciaClass JSON_CLASS = new AcaciaClass("json", null, Map.of());
+
+    // How deeply arrays and objects can be put inside each other before it's treated as an error, instead of running
+    // out of stack reading them
+    private static final int MAX_DEPTH = 512;
+
+    // The file being read, or null when reading a string that's all in the buffer already
+    private final FileText text;
+
+    // The characters in the buffer, how far into them reading has gotten, and how many came before them
+    private char[] array;
+    private int at;
+    private int end;
+    private long before = 0;
+
+    private final StringBuilder scratch = new StringBuilder();
+    private Token location;
+
+    private JsonReader(String json, Token location) {
+        this.text = null;
+        this.array = json.toCharArray();
+        this.at = 0;
+        this.end = array.length;
+        this.location = location;
+    }
+
+    JsonReader(FileText text, Token location) {
+        this.text = text;
+        this.location = location;
+
+        CharBuffer chars = text.chars();
+        this.array = chars.array();
+        this.at = chars.position();
+        this.end = chars.limit();
+    }
+
+    // Reads a whole string as a single JSON value
+    static Object parse(String json, Token location) {
+        JsonReader reader = new JsonReader(json, location);
+        Object value = reader.readValue(0);
+        reader.expectEnd();
+        return value;
+    }
+
+    // Errors are reported at whatever token the reader was last used from
+    void at(Token location) {
+        this.location = location;
+    }
+
+    // Reads the next value along with everything inside of it
+    Object readValue(int depth) {
+        int c = peekPastWhitespace();
+        switch (c) {
+            case '{':
+                at++;
+                if (depth >= MAX_DEPTH) throw error("Objects and arrays are nested too deeply");
+                return readObject(depth + 1);
+            case '[':
+                at++;
+                if (depth >= MAX_DEPTH) throw error("Objects and arrays are nested too deeply");
+                return readArray(depth + 1);
+            default:
+                return readScalar();
+        }
+    }
+
+    // Reads a value that can't have anything inside of it
+    Object readScalar() {
+        int c = peekPastWhitespace();
+        switch (c) {
+            case '"':
+                at++;
+                return readString();
+            case 't':
+                readWord("true");
+                return true;
+            case 'f':
+                readWord("false");
+                return false;
+            case 'n':
+                readWord("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+                throw expected("a value");
+        }
+    }
+
+    private AcaciaInstance readObject(int depth) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (peekPastWhitespace() == '}') {
+            at++;
+            return new AcaciaInstance(JSON_CLASS, fields);
+        }
+
+        while (true) {
+            String key = readKey();
+            fields.put(key, readValue(depth));
+
+            if (!readSeparator('}')) return new AcaciaInstance(JSON_CLASS, fields);
+        }
+    }
+
+    private AcaciaSet readArray(int depth) {
+        List<Object> elements = new ArrayList<>();
+        if (peekPastWhitespace() == ']') {
+            at++;
+            return new AcaciaSet(elements);
+        }
+
+        while (true) {
+            elements.add(readValue(depth));
+
+            if (!readSeparator(']')) return new AcaciaSet(elements);
+        }
+    }
+
+    // Reads a key of an object and the colon after it
+    String readKey() {
+        if (peekPastWhitespace() != '"') throw expected("a key");
+        at++;
+        String key = readString();
+
+        if (peekPastWhitespace() != ':') throw expected("':' after a key");
+        at++;
+        return key;
+    }
+
+    // Reads what comes after an element of an array or object, giving back true if it's a comma and false if it's the
+    // bracket that closes it
+    boolean readSeparator(char close) {
+        int c = peekPastWhitespace();
+        if (c == ',') {
+            at++;
+            return true;
+        }
+        if (c == close) {
+            at++;
+            return false;
+        }
+        throw expected("',' or '" + close + "'");
+    }
+
+    // Reads the rest of a string after its opening quote. Strings without escapes that don't run past the end of the
+    // buffer are made straight from it
+    private String readString() {
+        int start = at;
+        while (at < end) {
+            char c = array[at];
+            if (c == '"') {
+                at++;
+                return new String(array, start, at - 1 - start);
+            }
+            if (c == '\\' || c < 0x20) break;
+            at++;
+        }
+
+        scratch.setLength(0);
+        scratch.append(array, start, at - start);
+        while (true) {
+            int c = peek();
+            if (c == -1) throw expected("'\"' to end a string");
+            at++;
+
+            if (c == '"') return scratch.toString();
+            if (c < 0x20) {
+                at--;
+                throw expected("a control character in a string to be escaped");
+            }
+            if (c != '\\') {
+                scratch.append((char) c);
+                continue;
+            }
+
+            int escaped = peek();
+            at++;
+            switch (escaped) {
+                case '"', '\\', '/' -> scratch.append((char) escaped);
+                case 'b' -> scratch.append('\b');
+                case 'f' -> scratch.append('\f');
+                case 'n' -> scratch.append('\n');
+                case 'r' -> scratch.append('\r');
+                case 't' -> scratch.append('\t');
+                case 'u' -> scratch.append(readHexCharacter());
+                default -> {
+                    at--;
+                    throw expected("an escape sequence");
+                }
+            }
+        }
+    }
+
+    // Reads the 4 hex digits of a unicode escape
+    private char readHexCharacter() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = peek() == -1 ? -1 : Character.digit((char) peek(), 16);
+            if (digit == -1) throw expected("4 hex digits after '\\u'");
+            value = (value << 4) | digit;
+            at++;
+        }
+        return (char) value;
+    }
+
+    // Reads a number, working whole numbers out directly and leaving anything else to Java's parsing
+    private double readNumber() {
+        scratch.setLength(0);
+        boolean negative = readIf('-');
+
+        int digits;
+        if (peek() == '0') {
+            scratch.append('0');
+            at++;
+            digits = 1;
+        } else {
+            digits = readDigits();
+            if (digits == 0) throw expected("a digit");
+        }
+
+        boolean whole = true;
+        if (readIf('.')) {
+            whole = false;
+            scratch.append('.');
+            if (readDigits() == 0) throw expected("a digit after '.'");
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            whole = false;
+            scratch.append('e');
+            at++;
+            if (peek() == '+' || peek() == '-') {
+                scratch.append((char) peek());
+                at++;
+            }
+            if (readDigits() == 0) throw expected("a digit in an exponent");
+        }
+
+        // Up to 15 digits always fit in a double exactly
+        if (whole && digits <= 15) {
+            long value = 0;
+            for (int i = 0; i < digits; i++) {
+                value = value * 10 + (scratch.charAt(i) - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        double value = Double.parseDouble(scratch.toString());
+        return negative ? -value : value;
+    }
+
+    private int readDigits() {
+        int count = 0;
+        for (int c = peek(); c >= '0' && c <= '9'; c = peek()) {
+            scratch.append((char) c);
+            at++;
+            count++;
+        }
+        return count;
+    }
+
+    private void readWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (peek() != word.charAt(i)) throw expected("'" + word + "'");
+            at++;
+        }
+    }
+
+    private boolean readIf(char c) {
+        if (peek() != c) return false;
+        at++;
+        return true;
+    }
+
+    // Checks that nothing but whitespace is left after the value that was read
+    void expectEnd() {
+        if (peekPastWhitespace() != -1) throw expected("nothing more after the value");
+    }
+
+    // Gets the next character that isn't whitespace without moving past it, or -1 at the end
+    int peekPastWhitespace() {
+        while (true) {
+            while (at < end) {
+                char c = array[at];
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+                at++;
+            }
+            if (!fill()) return -1;
+        }
+    }
+
+    private int peek() {
+        if (at < end || fill()) return array[at];
+        return -1;
+    }
+
+    // Moves on to the next buffer of the file once everything in this one has been read
+    private boolean fill() {
+        if (text == null || !text.isOpen()) return false;
+
+        CharBuffer chars = text.chars();
+        chars.position(end);
+        before += end;
+        if (!text.fill(location)) return false;
+
+        at = chars.position();
+        end = chars.limit();
+        return true;
+    }
+
+    private RuntimeError expected(String what) {
+        int c = peek();
+        String found = c == -1 ? "the end" : "'" + (char) c + "'";
+        return error("Expected " + what + " but found " + found);
+    }
+
+    private RuntimeError error(String message) {
+        String where = text == null ? "" : " of file '" + text.path + "'";
+        return new RuntimeError(location, "Invalid JSON at character " + (before + at + 1) + where + ". " +
+                message + ".");
+    }
+}
@@ -0,0 +1,138 @@
+package com.edavalos.acacia;
+
+import java.util.List;
+import java.util.Map;
+
+// Writes values out as JSON a piece at a time into wherever they're going, so a writer can put them straight into its
+// buffer without the whole document ever being a string. Sets and anything else that can be indexed become arrays,
+// instances become objects of their fields, and nil becomes null
+final class JsonWriter {
+    // Where JSON is written to, which is given characters as they're worked out
+    interface Sink {
+        void append(char c);
+        void append(String text, int from, int to);
+    }
+
+    // How deeply values can be inside each other before it's treated as an error, since it most likely means that
+    // something is inside of itself
+    private static final int MAX_DEPTH = 512;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JsonWriter() {}
+
+    static String toJson(Object value, Token location) {
+        StringBuilder json = new StringBuilder();
+        write(value, new Sink() {
+            @Override
+            public void append(char c) {
+                json.append(c);
+            }
+
+            @Override
+            public void append(String text, int from, int to) {
+                json.append(text, from, to);
+            }
+        }, location);
+        return json.toString();
+    }
+
+    static void write(Object value, Sink out, Token location) {
+        write(value, out, 0, location);
+    }
+
+    private static void write(Object value, Sink out, int depth, Token location) {
+        if (depth > MAX_DEPTH) {
+            throw new RuntimeError(location, "Cannot write values nested more than " + MAX_DEPTH + " deep as JSON " +
+                    "(is something inside of itself?).");
+        }
+
+        if (value == null) {
+            append("null", out);
+        } else if (value instanceof Boolean) {
+            append((boolean) value ? "true" : "false", out);
+        } else if (value instanceof Double) {
+            writeNumber((double) value, out, location);
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof AcaciaSet) {
+            List<Object> elements = ((AcaciaSet) value).getAll();
+            out.append('[');
+            for (int i = 0; i < elements.size(); i++) {
+                if (i > 0) out.append(',');
+                write(elements.get(i), out, depth + 1, location);
+            }
+            out.append(']');
+        } else if (value instanceof AcaciaIterable) {
+            AcaciaIterable elements = (AcaciaIterable) value;
+            out.append('[');
+            for (int i = 0; i < elements.cSize(); i++) {
+                if (i > 0) out.append(',');
+                write(elements.get(i, location), out, depth + 1, location);
+            }
+            out.append(']');
+        } else if (value instanceof AcaciaInstance) {
+            boolean first = true;
+            out.append('{');
+            for (Map.Entry<String, Object> field : ((AcaciaInstance) value).fields().entrySet()) {
+                if (!first) out.append(',');
+                first = false;
+
+                writeString(field.getKey(), out);
+                out.append(':');
+                write(field.getValue(), out, depth + 1, location);
+            }
+            out.append('}');
+        } else {
+            throw new RuntimeError(location, "Cannot write " + Acacia.stringify(value) + " as JSON.");
+        }
+    }
+
+    // Whole numbers are written without a decimal point, like they're printed
+    private static void writeNumber(double number, Sink out, Token location) {
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            throw new RuntimeError(location, "Cannot write " + Acacia.stringify(number) + " as JSON.");
+        }
+
+        if (number == (long) number && Math.abs(number) < 1e15) append(Long.toString((long) number), out);
+        else append(Double.toString(number), out);
+    }
+
+    // Copies runs of characters that don't need escaping all at once
+    private static void writeString(String text, Sink out) {
+        out.append('"');
+
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+
+            out.append(text, start, i);
+            start = i + 1;
+
+            out.append('\\');
+            switch (c) {
+                case '"', '\\' -> out.append(c);
+                case '\b' -> out.append('b');
+                case '\f' -> out.append('f');
+                case '\n' -> out.append('n');
+                case '\r' -> out.append('r');
+                case '\t' -> out.append('t');
+                default -> {
+                    out.append('u');
+                    out.append('0');
+                    out.append('0');
+                    out.append(HEX_DIGITS[c >>> 4]);
+                    out.append(HEX_DIGITS[c & 0xF]);
+                }
+            }
+        }
+        out.append(text, start, text.length());
+
+        out.append('"');
+    }
+
+    private static void append(String text, Sink out) {
+        out.append(text, 0, text.length());
+    }
+}
@@ -0,0 +1,39 @@
+package com.edavalos.acacia;
+
+// Loops over blocks of doubles for the bulk numeric natives. The SIMD version lives in its own source set, since it
+// needs the incubating Vector API, so it's loaded by name and swapped for plain loops whenever it can't be
+interface Kernels {
+    // Loaded the first time a bulk native runs, once every option has been read
+    Kernels active = load();
+
+    // Writes a[i] + b[i] into out[i], for 'length' elements starting at each block's offset (out starts at 0)
+    void add(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length);
+
+    void mul(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length);
+
+    void scale(double[] a, int from, double factor, double[] out, int length);
+
+    double dot(double[] a, int aFrom, double[] b, int bFrom, int length);
+
+    double sum(double[] a, int from, int length);
+
+    double min(double[] a, int from, int length);
+
+    double max(double[] a, int from, int length);
+
+    // Picks the SIMD kernels if they were built and the JVM was started with --add-modules jdk.incubator.vector
+    static Kernels load() {
+        if (Acacia.vector) {
+            try {
+                Kernels kernels = (Kernels) Class.forName("com.edavalos.acacia.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+
+                // Classes from a missing module only fail once they're used
+                kernels.sum(new double[1], 0, 1);
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError ignored) {}
+        }
+
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,59 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Remembers what a pure function returned for the arguments it was called with, forgetting the least recently used
+// results once it's full
+class Memo {
+    // Every memo made, so their counters can be reported
+    static final List<Memo> memos = new ArrayList<>();
+
+    final String name;
+    private final int capacity;
+    int hits = 0;
+    int misses = 0;
+
+    // Results in order of when they were last used, from least to most recently
+    private final Map<List<Object>, Object> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    Memo(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+        memos.add(this);
+    }
+
+    boolean containsKey(List<Object> arguments) {
+        return results.containsKey(arguments);
+    }
+
+    Object get(List<Object> arguments) {
+        return results.get(arguments);
+    }
+
+    void put(List<Object> arguments, Object result) {
+        results.put(arguments, result);
+        if (results.size() > capacity) {
+            results.remove(results.keySet().iterator().next());
+        }
+    }
+
+    int size() {
+        return results.size();
+    }
+
+    // Determines whether a value can be remembered, sets and instances can change after the call that made them
+    static boolean remembers(Object value) {
+        return value == null || value instanceof Double || value instanceof String || value instanceof Boolean;
+    }
+
+    // Prints how often each memo had a result ready
+    static void report() {
+        for (Memo memo : memos) {
+            System.err.println("[Memo]: '" + memo.name + "' " + memo.hits + " hits, " + memo.misses + " misses, " +
+                    memo.size() + " remembered");
+        }
+    }
+}
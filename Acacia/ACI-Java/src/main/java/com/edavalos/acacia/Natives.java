@@ -1,5 +1,14 @@
 package com.edavalos.acacia;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 // This class holds every native function of Acacia
@@ -23,7 +32,7 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
                     return (double)System.currentTimeMillis() / 1000.0;
                 }
 
@@ -48,7 +57,7 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
                     return Math.random();
                 }
 
@@ -73,7 +82,7 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
                     StringBuilder printer = new StringBuilder();
                     for (Object arg : arguments) {
                         printer.append(Acacia.stringify(arg)).append(" ");
@@ -103,7 +112,7 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
                     StringBuilder printer = new StringBuilder();
                     for (Object arg : arguments) {
                         printer.append(Acacia.stringify(arg)).append(" ");
@@ -118,7 +127,7 @@ public final class Natives {
                 }
             },
 
-            // 'len(set|string)' - returns number of elements in something
+            // 'len(set|array|range|string|mapped|bytes)' - returns number of elements in something
             new AcaciaCallable() {
                 final String name = "len";
 
@@ -133,17 +142,21 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    Object arg = arguments.get(0);
-                    if (arg instanceof AcaciaSet) {
-                        return (double)(((AcaciaSet) arg).cSize());
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Object arg = arguments[0];
+                    if (arg instanceof AcaciaMapped) {
+                        // Mapped files can be bigger than anything else that has a length
+                        return (double) ((AcaciaMapped) arg).size();
+                    }
+                    else if (arg instanceof AcaciaIterable) {
+                        return (double)(((AcaciaIterable) arg).cSize());
                     }
                     else if (arg instanceof String) {
                         return (double)(((String) arg).length());
                     }
                     else {
                         throw new RuntimeError(location, "Function '" + name + "' expected" +
-                                " set or string as argument");
+                                " set, array, range or string as argument");
                     }
                 }
 
@@ -168,14 +181,14 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (arguments.size() > 1) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (arguments.length > 1) {
                         throw new RuntimeError(location, "Expected 0 or 1 arguments but got " +
-                                arguments.size() + " (in '" + name + "').");
+                                arguments.length + " (in '" + name + "').");
                     }
                     String arg = "any";
-                    if (arguments.size() == 1) {
-                        arg = Acacia.stringify(arguments.get(0)).toLowerCase();
+                    if (arguments.length == 1) {
+                        arg = Acacia.stringify(arguments[0]).toLowerCase();
                         if (!Arrays.asList(validTypes).contains(arg)) {
                             throw new RuntimeError(location, "'" + arg + "' is not a valid type " +
                                     "to convert to. Must be: 'boolean', 'string', 'number' or 'any'.");
@@ -241,13 +254,13 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof Double)) {
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof Double)) {
                         throw new RuntimeError(location, "Function '" + name + "' expected" +
                                 " number as argument");
                     }
                     try {
-                        Thread.sleep(((Double) arguments.get(0)).longValue());
+                        Thread.sleep(((Double) arguments[0]).longValue());
                     } catch (InterruptedException ignore) {}
 
                     return null;
@@ -274,9 +287,9 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    Object given = arguments.get(0);
-                    String newType = Acacia.stringify(arguments.get(1)).toLowerCase();
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Object given = arguments[0];
+                    String newType = Acacia.stringify(arguments[1]).toLowerCase();
                     if (!Arrays.asList(validTypes).contains(newType)) {
                         throw new RuntimeError(location, "'" + newType + "' is not a valid type " +
                                 "to convert to. Must be: 'boolean', 'string' or 'number'.");
@@ -347,8 +360,8 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    Object thing = arguments.get(0);
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Object thing = arguments[0];
                     if (thing == null) return null;
                     if (thing instanceof Boolean) return validTypes[0];
                     if (thing instanceof String) return validTypes[2];
@@ -357,6 +370,16 @@ public final class Natives {
                     String name = thing.getClass().getName().replace("com.edavalos.acacia.Acacia", "");
                     return switch (name) {
                         case "Set" -> "set";
+                        case "Array" -> "array";
+                        case "Range" -> "range";
+                        case "Generator" -> "generator";
+                        case "Lines" -> "lines";
+                        case "Writer" -> "writer";
+                        case "Mapped" -> "mapped";
+                        case "Bytes" -> "bytes";
+                        case "Csv" -> "csv";
+                        case "JsonEvents" -> "json events";
+                        case "Store" -> "store";
                         case "Instance" -> "instance";
                         case "Function" -> "function";
                         case "Class" -> "class";
@@ -385,8 +408,8 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    return (arguments.get(0) instanceof AcaciaCallable);
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return (arguments[0] instanceof AcaciaCallable);
                 }
 
                 @Override
@@ -410,16 +433,16 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(1) instanceof AcaciaClass))
-                        throw new RuntimeError(location, "'" + arguments.get(1) + "' is not a valid class");
-                    AcaciaClass superior = ((AcaciaClass) arguments.get(1));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[1] instanceof AcaciaClass))
+                        throw new RuntimeError(location, "'" + arguments[1] + "' is not a valid class");
+                    AcaciaClass superior = ((AcaciaClass) arguments[1]);
 
-                    if (arguments.get(0) instanceof AcaciaClass) {
-                        return ((AcaciaClass) arguments.get(0)).superclass == superior;
+                    if (arguments[0] instanceof AcaciaClass) {
+                        return ((AcaciaClass) arguments[0]).superclass == superior;
                     }
-                    else if (arguments.get(0) instanceof AcaciaInstance) {
-                        return ((AcaciaInstance) arguments.get(0)).klass.superclass == superior;
+                    else if (arguments[0] instanceof AcaciaInstance) {
+                        return ((AcaciaInstance) arguments[0]).klass.superclass == superior;
                     }
                     else return false;
 
@@ -446,13 +469,13 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(1) instanceof AcaciaClass))
-                        throw new RuntimeError(location, "'" + arguments.get(1) + "' is not a valid class");
-                    AcaciaClass type = ((AcaciaClass) arguments.get(1));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[1] instanceof AcaciaClass))
+                        throw new RuntimeError(location, "'" + arguments[1] + "' is not a valid class");
+                    AcaciaClass type = ((AcaciaClass) arguments[1]);
 
-                    if (arguments.get(0) instanceof AcaciaInstance) {
-                        AcaciaClass thing = ((AcaciaInstance) arguments.get(0)).klass;
+                    if (arguments[0] instanceof AcaciaInstance) {
+                        AcaciaClass thing = ((AcaciaInstance) arguments[0]).klass;
                         if (thing == type) return true;
                         while (thing != null) {
                             thing = thing.superclass;
@@ -485,9 +508,9 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!Acacia.isTruthy(arguments.get(0)))
-                        throw new RuntimeError(location, "Assertion failed: " + arguments.get(1));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!Acacia.isTruthy(arguments[0]))
+                        throw new RuntimeError(location, "Assertion failed: " + arguments[1]);
 
                     return null;
 
@@ -497,17 +520,12 @@ public final class Natives {
                 public String toString() {
                     return "<native fn " + name + ">";
                 }
-            }
-    );
-
-
-
-    static final List<AcaciaCallable> setMethods = Arrays.asList(
-            // -- these only visit the original set:
+            },
 
-            // '.join(str) - returns a string from elements in a set with delimiter provided
+            // 'range(number, number, number)' - returns the numbers from a start up to (not including) an end, counting
+            // by a step. Takes in just an end to start at 0, and leaves out the step to count by 1
             new AcaciaCallable() {
-                public final String name = "join";
+                final String name = "range";
 
                 @Override
                 public String name() {
@@ -516,38 +534,36 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 1;
+                    return -1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet)) return null;
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
-
-                    if (!(arguments.get(1) instanceof String)) {
-                        throw new RuntimeError(location, "Expected string as argument.");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (arguments.length < 1 || arguments.length > 3) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected 1 to 3 arguments " +
+                                "but got " + arguments.length + ".");
                     }
-                    String delim = ((String) arguments.get(1));
-                    List<String> elems = new ArrayList<>();
-                    for (Object elem : set) {
-                        if (elem instanceof String) {
-                            elems.add(((String) elem));
-                        } else {
-                            elems.add(Acacia.stringify(elem));
+                    for (Object arg : arguments) {
+                        if (!(arg instanceof Double)) {
+                            throw new RuntimeError(location, "Function '" + name + "' expected numbers as " +
+                                    "arguments.");
                         }
                     }
-                    return String.join(delim, elems);
+
+                    if (arguments.length == 1) return new AcaciaRange(0.0, (double) arguments[0], 1.0, location);
+                    double step = arguments.length == 3 ? (double) arguments[2] : 1.0;
+                    return new AcaciaRange((double) arguments[0], (double) arguments[1], step, location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.contains(obj) - returns whether or not a set contains an object. Takes in anything to find.'
+            // 'zeros(number...)' - returns an array of zeros with a given size for each of its dimensions
             new AcaciaCallable() {
-                public final String name = "contains";
+                final String name = "zeros";
 
                 @Override
                 public String name() {
@@ -556,26 +572,24 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 1;
+                    return -1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet)) return null;
-                    AcaciaSet set = ((AcaciaSet) arguments.get(0));
-
-                    return set.getAll().contains(arguments.get(1));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaArray(shapeOf(name, arguments, 0, location), 0.0);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.get(index) - returns an object in a set. Takes in an index.'
+            // 'fill(number, number...)' - returns an array with a given size for each of its dimensions, where
+            // every element starts as the given number
             new AcaciaCallable() {
-                public final String name = "get";
+                final String name = "fill";
 
                 @Override
                 public String name() {
@@ -584,32 +598,27 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 1;
+                    return -1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-
-                    if ((!(arguments.get(1) instanceof Double)) ||
-                            (((Double) arguments.get(1)) != Math.floor((Double) arguments.get(1)))) {
-                        throw new RuntimeError(location, "Function '" + name + "' expected" +
-                                " whole number as argument");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (arguments.length == 0 || !(arguments[0] instanceof Double)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected a number to fill " +
+                                "the array with.");
                     }
-                    Double index = ((Double) arguments.get(1));
-                    return ((AcaciaSet) arguments.get(0)).get(((int) index.floatValue()));
+                    return new AcaciaArray(shapeOf(name, arguments, 1, location), (double) arguments[0]);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.copy() - returns a copy of the set. Takes in no arguments.'
+            // 'read(string)' - returns everything in a file as a string
             new AcaciaCallable() {
-                public final String name = "copy";
+                final String name = "read";
 
                 @Override
                 public String name() {
@@ -618,28 +627,29 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-
-                    return new AcaciaSet(new ArrayList<>(((AcaciaSet) arguments.get(0)).getAll()));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    String path = pathOf(name, arguments[0], location);
+                    try {
+                        return Files.readString(Paths.get(path), StandardCharsets.UTF_8);
+                    } catch (IOException | RuntimeException exception) {
+                        throw fileError("read", path, exception, location);
+                    }
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // -- these methods *modify* the original set:
-
-            // '.sort()' - sorts a set.
+            // 'write(string, any)' - replaces everything in a file with something as a string, making the file if
+            // it doesn't exist
             new AcaciaCallable() {
-                public final String name = "sort";
+                final String name = "write";
 
                 @Override
                 public String name() {
@@ -648,44 +658,30 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 2;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
-
-                    set.sort(new Comparator<Object>() {
-                        @Override
-                        public int compare(Object o1, Object o2) {
-                            if (o1 instanceof AcaciaClass ||
-                                    o1 instanceof AcaciaInstance ||
-                                    o1 instanceof AcaciaFunction) {
-                                throw new RuntimeError(location, "Can't sort functions or classes.");
-                            }
-                            if (o2 instanceof AcaciaClass ||
-                                    o2 instanceof AcaciaInstance ||
-                                    o2 instanceof AcaciaFunction) {
-                                throw new RuntimeError(location, "Can't sort functions or classes.");
-                            }
-
-                            return Double.compare(Acacia.weight(o1), Acacia.weight(o2));
-                        }
-                    });
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    String path = pathOf(name, arguments[0], location);
+                    try {
+                        Files.writeString(Paths.get(path), Acacia.stringify(arguments[1]), StandardCharsets.UTF_8);
+                    } catch (IOException | RuntimeException exception) {
+                        throw fileError("write to", path, exception, location);
+                    }
                     return null;
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.reverse()' - reverses order of a set.
+            // 'lines(string)' - returns the lines of a file, which foreach reads a buffer at a time instead of all
+            // at once
             new AcaciaCallable() {
-                public final String name = "reverse";
+                final String name = "lines";
 
                 @Override
                 public String name() {
@@ -694,28 +690,50 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaLines(pathOf(name, arguments[0], location), location);
+                }
 
-                    Collections.reverse(set);
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'serialize(object, string)' - saves a value to a file in a compact binary form that deserialize() can load
+            // back, keeping whatever's shared between its parts shared
+            new AcaciaCallable() {
+                final String name = "serialize";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Snapshot.write(arguments[0], pathOf(name, arguments[1], location), location);
                     return null;
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.push()' - adds an element to the end of a set.
+            // 'deserialize(string)' - loads a value saved to a file by serialize()
             new AcaciaCallable() {
-                public final String name = "push";
+                final String name = "deserialize";
 
                 @Override
                 public String name() {
@@ -728,24 +746,19 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
-
-                    set.add(arguments.get(1));
-                    return null;
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return Snapshot.read(pathOf(name, arguments[0], location), interpreter, location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.pop()' - removes the last element of a set and returns it.
+            // 'openStore(string)' - opens a file of values kept by key between runs, making it if it doesn't exist
             new AcaciaCallable() {
-                public final String name = "pop";
+                final String name = "openStore";
 
                 @Override
                 public String name() {
@@ -754,32 +767,49 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaStore(pathOf(name, arguments[0], location), interpreter, location);
+                }
 
-                    if (set.size() == 0) return null;
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
 
-                    Object thing = set.get(set.size()-1);
-                    set.remove(set.size()-1);
-                    return thing;
+            // 'mmap(string)' - returns a file mapped into memory, which can be indexed for its bytes and read from at
+            // any offset without reading the rest of it
+            new AcaciaCallable() {
+                final String name = "mmap";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaMapped(pathOf(name, arguments[0], location), location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.add(index, element)' - adds an element at the specified index of the list,
-            //                          shifting everything after to the right by one.
+            // 'bytes(number|string)' - returns a number of zeroed bytes, or the bytes of a string
             new AcaciaCallable() {
-                public final String name = "add";
+                final String name = "bytes";
 
                 @Override
                 public String name() {
@@ -788,39 +818,33 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 2;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-
-                    if ((!(arguments.get(1) instanceof Double)) ||
-                            (((Double) arguments.get(1)) != Math.floor((Double) arguments.get(1)))) {
-                        throw new RuntimeError(location, "Function '" + name + "' expected" +
-                                " whole number as argument");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (arguments[0] instanceof String) {
+                        return AcaciaBytes.of(((String) arguments[0]).getBytes(StandardCharsets.UTF_8));
                     }
-                    Double index = ((Double) arguments.get(1));
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
-
-                    if (index >= set.size()) index = set.size() - 1.0;
-                    else if (index < 0) index = 0.0;
 
-                    set.add(((int) index.floatValue()), arguments.get(2));
-                    return null;
+                    Object length = arguments[0];
+                    if (!(length instanceof Double) || (double) length < 0 || (double) length > Integer.MAX_VALUE ||
+                            (double) length != Math.floor((double) length)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected a string or a whole " +
+                                "number of bytes.");
+                    }
+                    return new AcaciaBytes((int) (double) length);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.replace(index, element)' - puts an element at the specified index of the list,
-            //                              replacing anything already there.
+            // 'fromHex(string)' - returns the bytes written out in a string of hex digits, two per byte
             new AcaciaCallable() {
-                public final String name = "replace";
+                final String name = "fromHex";
 
                 @Override
                 public String name() {
@@ -829,38 +853,55 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 2;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-
-                    if ((!(arguments.get(1) instanceof Double)) ||
-                            (((Double) arguments.get(1)) != Math.floor((Double) arguments.get(1)))) {
-                        throw new RuntimeError(location, "Function '" + name + "' expected" +
-                                " whole number as argument");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
                     }
-                    Double index = ((Double) arguments.get(1));
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
+                    return AcaciaBytes.fromHex((String) arguments[0], location);
+                }
 
-                    if (index >= set.size()) index = set.size() - 1.0;
-                    else if (index < 0) index = 0.0;
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
 
-                    set.set(((int) index.floatValue()), arguments.get(2));
-                    return null;
+            // 'fromBase64(string)' - returns the bytes written out in a base64 string
+            new AcaciaCallable() {
+                final String name = "fromBase64";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    return AcaciaBytes.fromBase64((String) arguments[0], location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.clear()' - empties a set.
+            // 'readBytes(string)' - returns everything in a file as bytes, read by the file's channel straight into
+            // them
             new AcaciaCallable() {
-                public final String name = "clear";
+                final String name = "readBytes";
 
                 @Override
                 public String name() {
@@ -869,32 +910,37 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof AcaciaSet))
-                        throw new RuntimeError(location, "'" + arguments.get(0) + "' is not a set.");
-                    List<Object> set = ((AcaciaSet) arguments.get(0)).getAll();
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    String path = pathOf(name, arguments[0], location);
+                    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+                        if (channel.size() > Integer.MAX_VALUE) {
+                            throw new RuntimeError(location, "File '" + path + "' is too big to read as bytes, " +
+                                    "try mmap() instead.");
+                        }
 
-                    set.clear();
-                    return null;
+                        AcaciaBytes bytes = new AcaciaBytes((int) channel.size());
+                        ByteBuffer into = bytes.buffer();
+                        while (into.hasRemaining() && channel.read(into) != -1);
+                        return into.hasRemaining() ? bytes.slice(0, into.position()) : bytes;
+                    } catch (IOException exception) {
+                        throw fileError("read", path, exception, location);
+                    }
                 }
 
                 @Override
                 public String toString() {
-                    return "<set method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
-            }
-    );
-
-
+            },
 
-    static final List<AcaciaCallable> stringMethods = Arrays.asList(
-            // '.split(str)' - splits a string at the delimiter provided and returns a set
+            // 'writeBytes(string, bytes)' - replaces everything in a file with bytes, written straight from them by the
+            // file's channel
             new AcaciaCallable() {
-                public final String name = "split";
+                final String name = "writeBytes";
 
                 @Override
                 public String name() {
@@ -903,40 +949,39 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return -1;
+                    return 2;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof String)) return null;
-                    String str = ((String) arguments.get(0));
-
-                    if (arguments.size() > 2) {
-                        throw new RuntimeError(location, "Expected 0 or 1 arguments but got " +
-                                (arguments.size()-1) + " (in '" + name + "').");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    String path = pathOf(name, arguments[0], location);
+                    if (!(arguments[1] instanceof AcaciaBytes)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected bytes to write.");
                     }
 
-                    String delim = " ";
-                    if (arguments.size() == 2) {
-                        if (!(arguments.get(1) instanceof String)) {
-                            throw new RuntimeError(location, "Expected string as argument.");
+                    ByteBuffer from = ((AcaciaBytes) arguments[1]).buffer();
+                    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        while (from.hasRemaining()) {
+                            channel.write(from);
                         }
-                        delim = ((String) arguments.get(1));
+                    } catch (IOException | RuntimeException exception) {
+                        throw fileError("write to", path, exception, location);
                     }
-
-                    List<Object> split = Arrays.asList(((Object[]) str.split(delim)));
-                    return new AcaciaSet(split);
+                    return null;
                 }
 
                 @Override
                 public String toString() {
-                    return "<string method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.strip() - removes whitespaces from the beginning and end of a string'
+            // 'csv(string, set, set)' - returns the rows of a CSV file as sets, which foreach parses a buffer at a time.
+            // Takes in which columns to keep (nil or left out for all of them) and which columns are numbers, both
+            // given by index or by the name in the file's first row
             new AcaciaCallable() {
-                public final String name = "strip";
+                final String name = "csv";
 
                 @Override
                 public String name() {
@@ -945,26 +990,32 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return -1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof String)) return null;
-                    String str = ((String) arguments.get(0));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (arguments.length < 1 || arguments.length > 3) {
+                        throw new RuntimeError(location, "Expected 1 to 3 arguments but got " + arguments.length +
+                                " (in '" + name + "').");
+                    }
 
-                    return str.trim();
+                    String path = pathOf(name, arguments[0], location);
+                    List<Object> columns = arguments.length > 1 ? columnsOf(name, arguments[1], location) : null;
+                    List<Object> numbers = arguments.length > 2 ? columnsOf(name, arguments[2], location) : null;
+                    return new AcaciaCsv(path, columns, numbers, location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<string method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.replace(str, str) - replaces given string with another given string inside a string'
+            // 'parseJson(string)' - returns the value written in a JSON string, where objects become instances with a
+            // field for each key
             new AcaciaCallable() {
-                public final String name = "replace";
+                final String name = "parseJson";
 
                 @Override
                 public String name() {
@@ -973,30 +1024,26 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 2;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof String)) return null;
-                    String str = ((String) arguments.get(0));
-
-                    if (!(arguments.get(1) instanceof String) ||!(arguments.get(2) instanceof String) ) {
-                        throw new RuntimeError(location, "Expected strings as argument.");
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected a string.");
                     }
-
-                    return str.replaceAll(((String) arguments.get(1)), ((String) arguments.get(2)));
+                    return JsonReader.parse((String) arguments[0], location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<string method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.charCode() - returns character code of the first char of a string'
+            // 'toJson(object)' - returns a value written as a JSON string
             new AcaciaCallable() {
-                public final String name = "charCode";
+                final String name = "toJson";
 
                 @Override
                 public String name() {
@@ -1005,29 +1052,23 @@ public final class Natives {
 
                 @Override
                 public int arity() {
-                    return 0;
+                    return 1;
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof String)) return null;
-                    String str = ((String) arguments.get(0));
-
-                    if (str.length() == 0)
-                        throw new RuntimeError(location, "String is empty");
-
-                    return str.codePointAt(0) + 0.0;
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return JsonWriter.toJson(arguments[0], location);
                 }
 
                 @Override
                 public String toString() {
-                    return "<string method " + name + ">";
+                    return "<native fn " + name + ">";
                 }
             },
 
-            // '.contains(str) - returns whether or not a string contains another. Takes in a string to find.'
+            // 'jsonEvents(string)' - returns the events of a JSON file, which foreach reads a buffer at a time
             new AcaciaCallable() {
-                public final String name = "contains";
+                final String name = "jsonEvents";
 
                 @Override
                 public String name() {
@@ -1040,16 +1081,1194 @@ public final class Natives {
                 }
 
                 @Override
-                public Object call(Interpreter interpreter, List<Object> arguments, Token location) {
-                    if (!(arguments.get(0) instanceof String)) return null;
-                    String str = ((String) arguments.get(0));
-
-                    if (!(arguments.get(1) instanceof String)) {
-                        throw new RuntimeError(location, "Expected string as argument.");
-                    }
-                    String cont = ((String) arguments.get(1));
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaJsonEvents(pathOf(name, arguments[0], location), location);
+                }
 
-                    return str.contains(cont);
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'fields(instance)' - returns a set of the names of an instance's fields, in the order they were added for
+            // objects read from JSON
+            new AcaciaCallable() {
+                final String name = "fields";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaInstance) || arguments[0] instanceof AcaciaSet) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected an instance.");
+                    }
+                    return new AcaciaSet(new ArrayList<>(((AcaciaInstance) arguments[0]).fields().keySet()));
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'field(instance, string)' - returns the field of an instance with a given name, even when the name isn't
+            // one that could be written after a '.', or nil if it has no such field
+            new AcaciaCallable() {
+                final String name = "field";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaInstance) || arguments[0] instanceof AcaciaSet) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected an instance.");
+                    }
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected a field name as a string.");
+                    }
+                    return ((AcaciaInstance) arguments[0]).fields().get(arguments[1]);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'writer(string)' - returns a writer that adds to the end of a file, making the file if needed
+            new AcaciaCallable() {
+                final String name = "writer";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    return new AcaciaWriter(pathOf(name, arguments[0], location), location);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'add(set|array, set|array)' - returns the sums of each pair of elements in two sets or arrays
+            new AcaciaCallable() {
+                final String name = "add";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    Numbers b = pairedWith(name, a, arguments[1], location);
+
+                    double[] result = new double[a.length];
+                    Kernels.active.add(a.block, a.from, b.block, b.from, result, a.length);
+                    return shapedLike(arguments[0], result);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'mul(set|array, set|array)' - returns the products of each pair of elements in two sets or arrays
+            new AcaciaCallable() {
+                final String name = "mul";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    Numbers b = pairedWith(name, a, arguments[1], location);
+
+                    double[] result = new double[a.length];
+                    Kernels.active.mul(a.block, a.from, b.block, b.from, result, a.length);
+                    return shapedLike(arguments[0], result);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'scale(set|array, number)' - returns every element of a set or array multiplied by a number
+            new AcaciaCallable() {
+                final String name = "scale";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    if (!(arguments[1] instanceof Double)) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected a number to scale by.");
+                    }
+
+                    double[] result = new double[a.length];
+                    Kernels.active.scale(a.block, a.from, (double) arguments[1], result, a.length);
+                    return shapedLike(arguments[0], result);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'dot(set|array, set|array)' - returns the dot product of two sets or arrays
+            new AcaciaCallable() {
+                final String name = "dot";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    Numbers b = pairedWith(name, a, arguments[1], location);
+                    return Kernels.active.dot(a.block, a.from, b.block, b.from, a.length);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'sum(set|array)' - returns the sum of every element in a set or array
+            new AcaciaCallable() {
+                final String name = "sum";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    return Kernels.active.sum(a.block, a.from, a.length);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'min(set|array)' - returns the smallest element in a set or array
+            new AcaciaCallable() {
+                final String name = "min";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = nonEmpty(name, numbersOf(name, arguments[0], location), location);
+                    return Kernels.active.min(a.block, a.from, a.length);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'max(set|array)' - returns the biggest element in a set or array
+            new AcaciaCallable() {
+                final String name = "max";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = nonEmpty(name, numbersOf(name, arguments[0], location), location);
+                    return Kernels.active.max(a.block, a.from, a.length);
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            },
+
+            // 'norm(set|array)' - returns the length of a set or array as a vector, the square root of its dot product
+            // with itself
+            new AcaciaCallable() {
+                final String name = "norm";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    Numbers a = numbersOf(name, arguments[0], location);
+                    return Math.sqrt(Kernels.active.dot(a.block, a.from, a.block, a.from, a.length));
+                }
+
+                @Override
+                public String toString() {
+                    return "<native fn " + name + ">";
+                }
+            }
+    );
+
+    // Reads the sizes of a new array's dimensions from a native's arguments, starting at a given one
+    private static int[] shapeOf(String name, Object[] arguments, int from, Token location) {
+        if (arguments.length <= from) {
+            throw new RuntimeError(location, "Function '" + name + "' expected at least one dimension size.");
+        }
+
+        int[] shape = new int[arguments.length - from];
+        long size = 1;
+        for (int i = 0; i < shape.length; i++) {
+            Object arg = arguments[from + i];
+            if (!(arg instanceof Double) || (double) arg < 1 || (double) arg != Math.floor((double) arg)) {
+                throw new RuntimeError(location, "Function '" + name + "' expected dimension sizes to be " +
+                        "positive whole numbers.");
+            }
+
+            shape[i] = (int) Math.min((double) arg, Integer.MAX_VALUE);
+            size *= shape[i];
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new RuntimeError(location, "Array is too big to be made.");
+            }
+        }
+        return shape;
+    }
+
+    // What a method of a native value does with the arguments it was called with
+    interface MethodBody {
+        Object call(Object[] arguments, Token location);
+    }
+
+    // Makes a method for a native value like a writer or a mapped file, which prints as '<kind method name>'
+    static AcaciaCallable method(String kind, String name, int arity, MethodBody body) {
+        return new AcaciaCallable() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int arity() {
+                return arity;
+            }
+
+            @Override
+            public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                return body.call(arguments, location);
+            }
+
+            @Override
+            public String toString() {
+                return "<" + kind + " method " + name + ">";
+            }
+        };
+    }
+
+    private static String pathOf(String name, Object arg, Token location) {
+        if (!(arg instanceof String)) {
+            throw new RuntimeError(location, "Function '" + name + "' expected a file path as a string.");
+        }
+        return (String) arg;
+    }
+
+    // Reads a set of columns for a CSV native, given by index or name, where nil means no particular columns
+    private static List<Object> columnsOf(String name, Object arg, Token location) {
+        if (arg == null) return null;
+        if (!(arg instanceof AcaciaSet)) {
+            throw new RuntimeError(location, "Function '" + name + "' expected a set of columns.");
+        }
+
+        List<Object> columns = new ArrayList<>(((AcaciaSet) arg).getAll());
+        for (Object column : columns) {
+            if (column instanceof String) continue;
+            if (!(column instanceof Double) || (double) column < 0 || (double) column > Integer.MAX_VALUE - 1 ||
+                    (double) column != Math.floor((double) column)) {
+                throw new RuntimeError(location, "Function '" + name + "' expected columns to be names, or whole " +
+                        "numbers that aren't negative.");
+            }
+        }
+        return columns;
+    }
+
+    // Turns whatever went wrong while using a file into an error the program can report
+    static RuntimeError fileError(String action, String path, Exception exception, Token location) {
+        String reason = exception instanceof NoSuchFileException ? "no such file" :
+                exception instanceof AccessDeniedException ? "access denied" :
+                exception.getMessage();
+        return new RuntimeError(location, "Could not " + action + " file '" + path + "' (" + reason + ").");
+    }
+
+    // The numbers of a set or array, as a block of doubles that the bulk numeric natives can run over
+    private static final class Numbers {
+        final double[] block;
+        final int from;
+        final int length;
+
+        Numbers(double[] block, int from, int length) {
+            this.block = block;
+            this.from = from;
+            this.length = length;
+        }
+    }
+
+    // Arrays already hold their numbers in a block, while sets need theirs copied into one
+    private static Numbers numbersOf(String name, Object arg, Token location) {
+        if (arg instanceof AcaciaArray) {
+            AcaciaArray array = ((AcaciaArray) arg);
+            return new Numbers(array.block(), array.start(), array.total());
+        }
+
+        if (!(arg instanceof AcaciaSet)) {
+            throw new RuntimeError(location, "Function '" + name + "' expected a set or array of numbers.");
+        }
+
+        List<Object> contents = ((AcaciaSet) arg).getAll();
+        double[] block = new double[contents.size()];
+        for (int i = 0; i < block.length; i++) {
+            Object element = contents.get(i);
+            if (!(element instanceof Double)) {
+                throw new RuntimeError(location, "Function '" + name + "' expected a set of only numbers.");
+            }
+            block[i] = (double) element;
+        }
+        return new Numbers(block, 0, block.length);
+    }
+
+    // Reads the second operand of an element-wise native, which needs as many numbers as the first
+    private static Numbers pairedWith(String name, Numbers first, Object arg, Token location) {
+        Numbers second = numbersOf(name, arg, location);
+        if (second.length != first.length) {
+            throw new RuntimeError(location, "Function '" + name + "' expected the same number of elements in " +
+                    "both, but got " + first.length + " and " + second.length + ".");
+        }
+        return second;
+    }
+
+    private static Numbers nonEmpty(String name, Numbers numbers, Token location) {
+        if (numbers.length == 0) {
+            throw new RuntimeError(location, "Function '" + name + "' expected a set with at least one number.");
+        }
+        return numbers;
+    }
+
+    // Gives back the result of an element-wise native as a set or array, whichever its first operand was
+    private static Object shapedLike(Object like, double[] values) {
+        if (like instanceof AcaciaArray) return ((AcaciaArray) like).withData(values);
+
+        List<Object> contents = new ArrayList<>(values.length);
+        for (double value : values) {
+            contents.add(value);
+        }
+        return new AcaciaSet(contents);
+    }
+
+
+
+    static final List<AcaciaCallable> setMethods = Arrays.asList(
+            // -- these only visit the original set:
+
+            // '.join(str) - returns a string from elements in a set with delimiter provided
+            new AcaciaCallable() {
+                public final String name = "join";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet)) return null;
+                    List<Object> set = ((AcaciaSet) arguments[0]).getAll();
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String delim = ((String) arguments[1]);
+                    List<String> elems = new ArrayList<>();
+                    for (Object elem : set) {
+                        if (elem instanceof String) {
+                            elems.add(((String) elem));
+                        } else {
+                            elems.add(Acacia.stringify(elem));
+                        }
+                    }
+                    return String.join(delim, elems);
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.contains(obj) - returns whether or not a set contains an object. Takes in anything to find.'
+            new AcaciaCallable() {
+                public final String name = "contains";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet)) return null;
+                    AcaciaSet set = ((AcaciaSet) arguments[0]);
+
+                    return set.getAll().contains(arguments[1]);
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.get(index) - returns an object in a set. Takes in an index.'
+            new AcaciaCallable() {
+                public final String name = "get";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+
+                    if ((!(arguments[1] instanceof Double)) ||
+                            (((Double) arguments[1]) != Math.floor((Double) arguments[1]))) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected" +
+                                " whole number as argument");
+                    }
+                    Double index = ((Double) arguments[1]);
+                    return ((AcaciaSet) arguments[0]).get(((int) index.floatValue()));
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.copy() - returns a copy of the set. Takes in no arguments.'
+            new AcaciaCallable() {
+                public final String name = "copy";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+
+                    return new AcaciaSet(new ArrayList<>(((AcaciaSet) arguments[0]).getAll()));
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // -- these methods *modify* the original set:
+
+            // '.sort()' - sorts a set.
+            new AcaciaCallable() {
+                public final String name = "sort";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    set.sort(new Comparator<Object>() {
+                        @Override
+                        public int compare(Object o1, Object o2) {
+                            if (o1 instanceof AcaciaClass ||
+                                    o1 instanceof AcaciaInstance ||
+                                    o1 instanceof AcaciaFunction) {
+                                throw new RuntimeError(location, "Can't sort functions or classes.");
+                            }
+                            if (o2 instanceof AcaciaClass ||
+                                    o2 instanceof AcaciaInstance ||
+                                    o2 instanceof AcaciaFunction) {
+                                throw new RuntimeError(location, "Can't sort functions or classes.");
+                            }
+
+                            return Double.compare(Acacia.weight(o1), Acacia.weight(o2));
+                        }
+                    });
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.reverse()' - reverses order of a set.
+            new AcaciaCallable() {
+                public final String name = "reverse";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    Collections.reverse(set);
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.push()' - adds an element to the end of a set.
+            new AcaciaCallable() {
+                public final String name = "push";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    set.add(arguments[1]);
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.pop()' - removes the last element of a set and returns it.
+            new AcaciaCallable() {
+                public final String name = "pop";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    if (set.size() == 0) return null;
+
+                    Object thing = set.get(set.size()-1);
+                    set.remove(set.size()-1);
+                    return thing;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.add(index, element)' - adds an element at the specified index of the list,
+            //                          shifting everything after to the right by one.
+            new AcaciaCallable() {
+                public final String name = "add";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+
+                    if ((!(arguments[1] instanceof Double)) ||
+                            (((Double) arguments[1]) != Math.floor((Double) arguments[1]))) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected" +
+                                " whole number as argument");
+                    }
+                    Double index = ((Double) arguments[1]);
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    if (index >= set.size()) index = set.size() - 1.0;
+                    else if (index < 0) index = 0.0;
+
+                    set.add(((int) index.floatValue()), arguments[2]);
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.replace(index, element)' - puts an element at the specified index of the list,
+            //                              replacing anything already there.
+            new AcaciaCallable() {
+                public final String name = "replace";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+
+                    if ((!(arguments[1] instanceof Double)) ||
+                            (((Double) arguments[1]) != Math.floor((Double) arguments[1]))) {
+                        throw new RuntimeError(location, "Function '" + name + "' expected" +
+                                " whole number as argument");
+                    }
+                    Double index = ((Double) arguments[1]);
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    if (index >= set.size()) index = set.size() - 1.0;
+                    else if (index < 0) index = 0.0;
+
+                    set.set(((int) index.floatValue()), arguments[2]);
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            },
+
+            // '.clear()' - empties a set.
+            new AcaciaCallable() {
+                public final String name = "clear";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof AcaciaSet))
+                        throw new RuntimeError(location, "'" + arguments[0] + "' is not a set.");
+                    List<Object> set = ((AcaciaSet) arguments[0]).edit();
+
+                    set.clear();
+                    return null;
+                }
+
+                @Override
+                public String toString() {
+                    return "<set method " + name + ">";
+                }
+            }
+    );
+
+
+
+    static final List<AcaciaCallable> stringMethods = Arrays.asList(
+            // '.split(str)' - splits a string at the delimiter provided and returns a set
+            new AcaciaCallable() {
+                public final String name = "split";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return -1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (arguments.length > 2) {
+                        throw new RuntimeError(location, "Expected 0 or 1 arguments but got " +
+                                (arguments.length-1) + " (in '" + name + "').");
+                    }
+
+                    String delim = " ";
+                    if (arguments.length == 2) {
+                        if (!(arguments[1] instanceof String)) {
+                            throw new RuntimeError(location, "Expected string as argument.");
+                        }
+                        delim = ((String) arguments[1]);
+                    }
+
+                    return new AcaciaSet(Patterns.split(str, delim, location));
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.strip() - removes whitespaces from the beginning and end of a string'
+            new AcaciaCallable() {
+                public final String name = "strip";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    return str.trim();
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.replace(str, str) - replaces given string with another given string inside a string'
+            new AcaciaCallable() {
+                public final String name = "replace";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String) ||!(arguments[2] instanceof String) ) {
+                        throw new RuntimeError(location, "Expected strings as argument.");
+                    }
+
+                    return Patterns.replace(str, ((String) arguments[1]), ((String) arguments[2]), location);
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.charCode() - returns character code of the first char of a string'
+            new AcaciaCallable() {
+                public final String name = "charCode";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 0;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (str.length() == 0)
+                        throw new RuntimeError(location, "String is empty");
+
+                    return str.codePointAt(0) + 0.0;
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.contains(str) - returns whether or not a string contains another. Takes in a string to find.'
+            new AcaciaCallable() {
+                public final String name = "contains";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String cont = ((String) arguments[1]);
+
+                    return str.contains(cont);
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.matches(regex) - returns whether or not a whole string matches a regular expression'
+            new AcaciaCallable() {
+                public final String name = "matches";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String regex = ((String) arguments[1]);
+
+                    return Patterns.matches(str, regex, location);
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.find(regex) - returns the first part of a string matching a regular expression, or nil if none does'
+            new AcaciaCallable() {
+                public final String name = "find";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String regex = ((String) arguments[1]);
+
+                    return Patterns.find(str, regex, location);
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.findAll(regex) - returns a set of every part of a string matching a regular expression'
+            new AcaciaCallable() {
+                public final String name = "findAll";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String regex = ((String) arguments[1]);
+
+                    return new AcaciaSet(Patterns.findAll(str, regex, location));
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.replaceRegex(regex, str) - replaces every match of a regular expression, where $1 and so on in the
+            //                            replacement stand for the expression's groups'
+            new AcaciaCallable() {
+                public final String name = "replaceRegex";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 2;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String) || !(arguments[2] instanceof String)) {
+                        throw new RuntimeError(location, "Expected strings as argument.");
+                    }
+                    String regex = ((String) arguments[1]);
+
+                    return Patterns.replace(str, regex, ((String) arguments[2]), location);
+                }
+
+                @Override
+                public String toString() {
+                    return "<string method " + name + ">";
+                }
+            },
+
+            // '.splitRegex(regex) - splits a string around every match of a regular expression and returns a set'
+            new AcaciaCallable() {
+                public final String name = "splitRegex";
+
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public int arity() {
+                    return 1;
+                }
+
+                @Override
+                public Object call(Interpreter interpreter, Object[] arguments, Token location) {
+                    if (!(arguments[0] instanceof String)) return null;
+                    String str = ((String) arguments[0]);
+
+                    if (!(arguments[1] instanceof String)) {
+                        throw new RuntimeError(location, "Expected string as argument.");
+                    }
+                    String regex = ((String) arguments[1]);
+
+                    return new AcaciaSet(Patterns.split(str, regex, location));
                 }
 
                 @Override
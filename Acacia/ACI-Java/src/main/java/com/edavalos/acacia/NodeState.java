@@ -0,0 +1,13 @@
+package com.edavalos.acacia;
+
+// How far a syntax tree node has specialized itself on the values it has seen while running
+enum NodeState {
+    // Hasn't run yet
+    UNINITIALIZED,
+
+    // Has only seen one kind of value, and takes a shortcut for it
+    SPECIALIZED,
+
+    // Has seen more than one kind of value, and sticks to the general path from then on
+    GENERIC
+}
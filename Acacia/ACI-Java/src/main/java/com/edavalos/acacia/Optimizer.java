@@ -0,0 +1,359 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Folds constant expressions and prunes dead branches from the resolved syntax tree
+class Optimizer implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+    private final Interpreter interpreter;
+
+    Optimizer(Interpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    // Optimizes a list of statements, dropping any that turn out to do nothing
+    List<Stmt> optimize(List<Stmt> statements) {
+        List<Stmt> optimized = new ArrayList<>();
+        for (Stmt statement : statements) {
+            Stmt stmt = optimize(statement);
+            if (stmt != null) optimized.add(stmt);
+        }
+
+        return optimized;
+    }
+
+    private Stmt optimize(Stmt stmt) {
+        return stmt.accept(this);
+    }
+
+    private Expr optimize(Expr expr) {
+        return expr.accept(this);
+    }
+
+    // Optimizes a statement that has to be kept in place, like a loop body or branch
+    private Stmt optimizeBranch(Stmt stmt) {
+        Stmt optimized = optimize(stmt);
+        if (optimized == null) return new Stmt.Block(new ArrayList<>());
+        return optimized;
+    }
+
+
+    /* --- Expressions' visitor methods --- */
+
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        Expr value = optimize(expr.value);
+        if (value == expr.value) return expr;
+
+        return relink(expr, new Expr.Assign(expr.name, value));
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+
+        Expr.Binary binary = expr;
+        if (left != expr.left || right != expr.right) {
+            binary = new Expr.Binary(left, expr.operator, right);
+        }
+
+        // Only fold once both operands are known values
+        if (left instanceof Expr.Literal && right instanceof Expr.Literal) {
+            return fold(binary);
+        }
+        return binary;
+    }
+
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        Expr callee = optimize(expr.callee);
+        List<Expr> arguments = optimizeAll(expr.arguments);
+
+        if (callee == expr.callee && arguments == null) return expr;
+        return new Expr.Call(callee, expr.paren, arguments == null ? expr.arguments : arguments);
+    }
+
+    @Override
+    public Expr visitEditSetExpr(Expr.EditSet expr) {
+        List<Expr> path = optimizePath(expr.path);
+        Expr value = optimize(expr.value);
+
+        if (path == null && value == expr.value) return expr;
+        return relink(expr, new Expr.EditSet(expr.name, path == null ? expr.path : path, value));
+    }
+
+    @Override
+    public Expr visitGetExpr(Expr.Get expr) {
+        Expr object = optimize(expr.object);
+        if (object == expr.object) return expr;
+
+        return new Expr.Get(object, expr.name);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        // Parenthesis only matter while parsing, so the inner expression can take their place
+        return optimize(expr.expression);
+    }
+
+    @Override
+    public Expr visitIncrementExpr(Expr.Increment expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitIncSetExpr(Expr.IncSet expr) {
+        List<Expr> path = optimizePath(expr.path);
+        if (path == null) return expr;
+
+        return relink(expr, new Expr.IncSet(expr.name, path, expr.type));
+    }
+
+    @Override
+    public Expr visitIndexExpr(Expr.Index expr) {
+        Expr set = optimize(expr.set);
+        Expr location = optimize(expr.location);
+        if (set == expr.set && location == expr.location) return expr;
+
+        return new Expr.Index(set, expr.name, expr.bracket, location);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+
+        // If the left side is known, the logical either short circuits to it or always yields the right side
+        if (left instanceof Expr.Literal) {
+            boolean truthy = Acacia.isTruthy(((Expr.Literal) left).value);
+            if (expr.operator.type == TokenType.OR) return truthy ? left : right;
+            else return truthy ? right : left;
+        }
+
+        if (left == expr.left && right == expr.right) return expr;
+        return new Expr.Logical(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitPutExpr(Expr.Put expr) {
+        Expr object = optimize(expr.object);
+        Expr value = optimize(expr.value);
+        if (object == expr.object && value == expr.value) return expr;
+
+        return new Expr.Put(object, expr.name, value);
+    }
+
+    @Override
+    public Expr visitSetExpr(Expr.Set expr) {
+        // Sets are mutable, so a set literal is never folded into a single shared value
+        List<Expr> values = optimizeAll(expr.values);
+        if (values == null) return expr;
+
+        return new Expr.Set(values);
+    }
+
+    @Override
+    public Expr visitSliceExpr(Expr.Slice expr) {
+        Expr set = optimize(expr.set);
+        Expr from = optimize(expr.from);
+        Expr to = optimize(expr.to);
+        if (set == expr.set && from == expr.from && to == expr.to) return expr;
+
+        return new Expr.Slice(set, expr.bracket, from, to);
+    }
+
+    @Override
+    public Expr visitSuperExpr(Expr.Super expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitThisExpr(Expr.This expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = optimize(expr.right);
+
+        Expr.Unary unary = expr;
+        if (right != expr.right) {
+            unary = new Expr.Unary(expr.operator, right);
+        }
+
+        if (right instanceof Expr.Literal) {
+            return fold(unary);
+        }
+        return unary;
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+
+    /* --- Statements' visitor methods --- */
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = optimize(stmt.statements);
+        if (statements.isEmpty()) return null;
+
+        return new Stmt.Block(statements);
+    }
+
+    @Override
+    public Stmt visitClassStmt(Stmt.Class stmt) {
+        List<Stmt.Function> methods = new ArrayList<>();
+        for (Stmt.Function method : stmt.methods) {
+            methods.add((Stmt.Function) optimize(method));
+        }
+
+        return new Stmt.Class(stmt.name, stmt.superclass, methods);
+    }
+
+    @Override
+    public Stmt visitExitStmt(Stmt.Exit stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        Expr expression = optimize(stmt.expression);
+        if (expression == stmt.expression) return stmt;
+
+        return new Stmt.Expression(expression);
+    }
+
+    @Override
+    public Stmt visitForeachStmt(Stmt.Foreach stmt) {
+        return new Stmt.Foreach(stmt.iterator, optimize(stmt.iterable), stmt.iterableName,
+                                stmt.index, optimizeBranch(stmt.body));
+    }
+
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        Stmt.Function optimized = new Stmt.Function(stmt.name, stmt.params, optimize(stmt.body));
+        optimized.generator = stmt.generator;
+        return optimized;
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = optimize(stmt.condition);
+
+        // If the condition is known, only the branch that would be taken is kept
+        if (condition instanceof Expr.Literal) {
+            if (Acacia.isTruthy(((Expr.Literal) condition).value)) return optimize(stmt.thenBranch);
+            else if (stmt.elseBranch != null) return optimize(stmt.elseBranch);
+            else return null;
+        }
+
+        Stmt elseBranch = null;
+        if (stmt.elseBranch != null) {
+            elseBranch = optimize(stmt.elseBranch);
+        }
+
+        return new Stmt.If(condition, optimizeBranch(stmt.thenBranch), elseBranch);
+    }
+
+    @Override
+    public Stmt visitNextStmt(Stmt.Next stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitOpenStmt(Stmt.Open stmt) {
+        return new Stmt.Open(stmt.keyword, optimize(stmt.file));
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        return new Stmt.Print(optimize(stmt.expression));
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value == null) return stmt;
+
+        Stmt.Return optimized = new Stmt.Return(stmt.keyword, optimize(stmt.value));
+        optimized.tail = stmt.tail;
+        return optimized;
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer == null) return stmt;
+
+        return new Stmt.Var(stmt.name, optimize(stmt.initializer));
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = optimize(stmt.condition);
+
+        // A loop whose condition is known to be false never runs, not even its increment
+        if (condition instanceof Expr.Literal && !Acacia.isTruthy(((Expr.Literal) condition).value)) {
+            return null;
+        }
+
+        Expr increment = null;
+        if (stmt.increment != null) {
+            increment = optimize(stmt.increment);
+        }
+
+        return new Stmt.While(condition, optimizeBranch(stmt.body), increment);
+    }
+
+    @Override
+    public Stmt visitYieldStmt(Stmt.Yield stmt) {
+        if (stmt.value == null) return stmt;
+
+        return new Stmt.Yield(stmt.keyword, optimize(stmt.value));
+    }
+
+
+    /* --- Utility methods --- */
+
+    // Evaluates an expression whose operands are all literals, and replaces it with the result.
+    // If evaluating it fails, it's left alone so the error is still raised when (and if) it runs
+    private Expr fold(Expr expr) {
+        try {
+            return new Expr.Literal(interpreter.evaluateConstant(expr));
+        } catch (RuntimeError error) {
+            return expr;
+        }
+    }
+
+    // Optimizes a list of expressions, or returns null if none of them changed
+    private List<Expr> optimizeAll(List<Expr> exprs) {
+        List<Expr> optimized = new ArrayList<>();
+        boolean changed = false;
+        for (Expr expr : exprs) {
+            Expr result = optimize(expr);
+            if (result != expr) changed = true;
+            optimized.add(result);
+        }
+
+        return changed ? optimized : null;
+    }
+
+    // Optimizes the index expressions of a set edit, or returns null if none of them changed
+    private List<Expr> optimizePath(List<Expr> path) {
+        List<Expr> optimized = optimizeAll(path);
+        return optimized == null ? null : List.copyOf(optimized);
+    }
+
+    // Makes sure a rebuilt expression keeps the scope depth the resolver found for the original
+    private Expr relink(Expr original, Expr replacement) {
+        interpreter.relink(original, replacement);
+        return replacement;
+    }
+}
@@ -2,8 +2,8 @@ package com.edavalos.acacia;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
 
 import static com.edavalos.acacia.TokenType.*;
 
@@ -74,6 +74,7 @@ class Parser {
         if (match(OPEN)) return openStatement();
         if (match(RETURN)) return returnStatement();
         if (match(WHILE)) return whileStatement();
+        if (match(YIELD)) return yieldStatement();
 
         if (match(LEFT_BRACE)) return new Stmt.Block(block());
 
@@ -196,6 +197,17 @@ class Parser {
         return new Stmt.Return(keyword, value);
     }
 
+    private Stmt yieldStatement() {
+        Token keyword = previous();
+        Expr value = null;
+        if (!check(SEMICOLON)) {
+            value = expression();
+        }
+
+        consume(SEMICOLON, "Expected ';' after yield value.");
+        return new Stmt.Yield(keyword, value);
+    }
+
     private Stmt varDeclaration() {
         Token name = consume(IDENTIFIER, "Expected variable name.");
 
@@ -266,15 +278,8 @@ class Parser {
             }
 
             if (expr instanceof Expr.Index) {
-                Stack<Expr> depth = new Stack<>();
-
-                Expr.Index current = ((Expr.Index) expr);
-                depth.push(current.location);
-                while (current.set instanceof Expr.Index) {
-                    current = ((Expr.Index) current.set);
-                    depth.push(current.location);
-                }
-                return new Expr.IncSet(((Expr.Index) expr).name, depth, type);
+                List<Expr> path = indexPath((Expr.Index) expr);
+                if (path != null) return new Expr.IncSet(((Expr.Index) expr).name, path, type);
             }
 
             error(type, "Invalid increment target.");
@@ -301,16 +306,8 @@ class Parser {
             }
 
             if (expr instanceof Expr.Index) {
-                Stack<Expr> depth = new Stack<>();
-
-                Expr.Index current = ((Expr.Index) expr);
-                depth.push(current.location);
-                while (current.set instanceof Expr.Index) {
-                    current = ((Expr.Index) current.set);
-                    depth.push(current.location);
-                }
-                return new Expr.EditSet(((Expr.Index) expr).name, depth, value);
-
+                List<Expr> path = indexPath((Expr.Index) expr);
+                if (path != null) return new Expr.EditSet(((Expr.Index) expr).name, path, value);
             }
 
             error(equals, "Invalid assignment target.");
@@ -453,9 +450,17 @@ class Parser {
 
         while (true) {
             if (match(LEFT_BRACKET)) {
-                Expr index = expression();
-                Token bracket = consume(RIGHT_BRACKET, "Expected ']' after index.");
-                expr = new Expr.Index(expr, varName, bracket, index);
+                // A slice can leave out either end, which is the same as giving nil for it
+                Expr index = check(COLON) ? new Expr.Literal(null) : expression();
+
+                if (match(COLON)) {
+                    Expr end = check(RIGHT_BRACKET) ? new Expr.Literal(null) : expression();
+                    Token bracket = consume(RIGHT_BRACKET, "Expected ']' after slice.");
+                    expr = new Expr.Slice(expr, bracket, index, end);
+                } else {
+                    Token bracket = consume(RIGHT_BRACKET, "Expected ']' after index.");
+                    expr = new Expr.Index(expr, varName, bracket, index);
+                }
             } else {
                 break;
             }
@@ -521,6 +526,22 @@ class Parser {
         return values;
     }
 
+    // Collects the indices of a chain like a[i][j], in the order they're taken, or gives back null if the chain
+    // doesn't start at a variable that can be modified
+    private List<Expr> indexPath(Expr.Index expr) {
+        List<Expr> path = new ArrayList<>();
+
+        Expr current = expr;
+        while (current instanceof Expr.Index) {
+            path.add(((Expr.Index) current).location);
+            current = ((Expr.Index) current).set;
+        }
+        if (!(current instanceof Expr.Variable)) return null;
+
+        Collections.reverse(path);
+        return List.copyOf(path);
+    }
+
 
     /* --- Token traversing methods --- */
 
@@ -592,7 +613,7 @@ class Parser {
 
             // Start of new statement means end of previous one
             switch (peek().type) {
-                case CLASS, DEF, LET, FOR, IF, WHILE, PRINT, RETURN -> {
+                case CLASS, DEF, LET, FOR, IF, WHILE, PRINT, RETURN, YIELD -> {
                     return;
                 }
             }
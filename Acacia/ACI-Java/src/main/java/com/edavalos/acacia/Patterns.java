@@ -0,0 +1,116 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Compiled regular expressions for the string methods, shared by all of them and keyed by the pattern's text, so a
+// pattern used inside a loop is only compiled once. Patterns without any special characters skip the regex engine
+final class Patterns {
+    // How many compiled patterns are kept before the least recently used one is forgotten
+    private static final int CAPACITY = 64;
+
+    // Compiled patterns in order of when they were last used, from least to most recently
+    private static final Map<String, Pattern> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Patterns() {}
+
+    // Gets the compiled version of a pattern, compiling it if it hasn't been used recently
+    static synchronized Pattern compile(String regex, Token location) {
+        Pattern pattern = cache.get(regex);
+        if (pattern == null) {
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException exception) {
+                throw new RuntimeError(location, "Invalid pattern '" + regex + "': " +
+                        exception.getDescription() + ".");
+            }
+            cache.put(regex, pattern);
+            if (cache.size() > CAPACITY) cache.remove(cache.keySet().iterator().next());
+        }
+        return pattern;
+    }
+
+    // Determines whether a pattern only ever matches its own text
+    static boolean isLiteral(String regex) {
+        if (regex.isEmpty()) return false;
+
+        for (int i = 0; i < regex.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) != -1) return false;
+        }
+        return true;
+    }
+
+    static boolean matches(String str, String regex, Token location) {
+        if (isLiteral(regex)) return str.equals(regex);
+        return compile(regex, location).matcher(str).matches();
+    }
+
+    // Gets the first part of a string that matches, or null if nothing does
+    static String find(String str, String regex, Token location) {
+        if (isLiteral(regex)) return str.contains(regex) ? regex : null;
+
+        Matcher matcher = compile(regex, location).matcher(str);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    static List<Object> findAll(String str, String regex, Token location) {
+        List<Object> found = new ArrayList<>();
+
+        if (isLiteral(regex)) {
+            for (int at = str.indexOf(regex); at != -1; at = str.indexOf(regex, at + regex.length())) {
+                found.add(regex);
+            }
+            return found;
+        }
+
+        Matcher matcher = compile(regex, location).matcher(str);
+        while (matcher.find()) {
+            found.add(matcher.group());
+        }
+        return found;
+    }
+
+    // Replaces every match, where '$1' and so on in the replacement stand for the pattern's groups
+    static String replace(String str, String regex, String replacement, Token location) {
+        if (isLiteral(regex) && replacement.indexOf('$') == -1 && replacement.indexOf('\\') == -1) {
+            return str.replace(regex, replacement);
+        }
+
+        try {
+            return compile(regex, location).matcher(str).replaceAll(replacement);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException exception) {
+            throw new RuntimeError(location, "Invalid replacement '" + replacement + "': " +
+                    exception.getMessage() + ".");
+        }
+    }
+
+    // Splits a string around every match, dropping empty strings at the end the same way split() always has
+    static List<Object> split(String str, String regex, Token location) {
+        List<Object> parts = new ArrayList<>();
+
+        if (isLiteral(regex)) {
+            int from = 0;
+            for (int at = str.indexOf(regex); at != -1; at = str.indexOf(regex, from)) {
+                parts.add(str.substring(from, at));
+                from = at + regex.length();
+            }
+            parts.add(str.substring(from));
+        } else {
+            for (String part : compile(regex, location).split(str)) {
+                parts.add(part);
+            }
+        }
+
+        // Splitting an empty string gives back the empty string itself
+        if (str.isEmpty()) return parts;
+
+        int end = parts.size();
+        while (end > 0 && ((String) parts.get(end - 1)).isEmpty()) end--;
+        return new ArrayList<>(parts.subList(0, end));
+    }
+}
@@ -0,0 +1,312 @@
+package com.edavalos.acacia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+// Finds the functions that always return the same thing for the same arguments, and never do anything else.
+// A function is pure if it only reads its own parameters and locals, only calls itself and natives that don't
+// do I/O, and never writes to fields, sets or variables from outside of it
+class PurityAnalyzer implements Expr.Visitor<Boolean>, Stmt.Visitor<Boolean> {
+    // Natives whose result only depends on their arguments
+    private static final Set<String> PURE_NATIVES = new HashSet<>(Arrays.asList(
+            "len", "convert", "type", "callable", "inherits", "instanceof", "assert"
+    ));
+
+    // Names declared inside the function being analyzed, in each of its scopes
+    private final Stack<Set<String>> scopes = new Stack<>();
+    private Stmt.Function current = null;
+
+    // The natives each pure function calls, and the global names the program declares or assigns anywhere. A pure
+    // function only gets a memo once it's known that none of the natives it calls are replaced by the program
+    private final Map<Stmt.Function, Set<String>> nativesCalled = new HashMap<>();
+    private final List<Stmt.Function> pureFunctions = new ArrayList<>();
+    private final Set<String> globalNames = new HashSet<>();
+
+    private final Interpreter interpreter;
+    private final int memoSize;
+
+    PurityAnalyzer(Interpreter interpreter, int memoSize) {
+        this.interpreter = interpreter;
+        this.memoSize = memoSize;
+    }
+
+    // Marks every pure function, and gives it a memo
+    void analyze(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            analyze(statement);
+        }
+
+        for (Stmt.Function function : pureFunctions) {
+            for (String name : nativesCalled.getOrDefault(function, Set.of())) {
+                if (globalNames.contains(name)) function.pure = false;
+            }
+            if (function.pure) function.memo = new Memo(function.name.lexeme, memoSize);
+        }
+    }
+
+    private boolean analyze(Stmt stmt) {
+        return stmt.accept(this);
+    }
+
+    private boolean analyze(Expr expr) {
+        return expr.accept(this);
+    }
+
+    // Statements are all analyzed, even once one is known to be impure, so functions inside them are found
+    private boolean analyzeAll(List<Stmt> statements) {
+        boolean pure = true;
+        for (Stmt statement : statements) {
+            pure &= analyze(statement);
+        }
+        return pure;
+    }
+
+    private void analyzeFunction(Stmt.Function function) {
+        Stmt.Function enclosing = current;
+        Stack<Set<String>> enclosingScopes = new Stack<>();
+        enclosingScopes.addAll(scopes);
+        scopes.clear();
+
+        current = function;
+        scopes.push(new HashSet<>(function.params.size()));
+        for (Token param : function.params) {
+            scopes.peek().add(param.lexeme);
+        }
+
+        function.pure = analyzeAll(function.body);
+        if (function.pure) pureFunctions.add(function);
+
+        current = enclosing;
+        scopes.clear();
+        scopes.addAll(enclosingScopes);
+    }
+
+
+    /* --- Expressions' visitor methods --- */
+
+    @Override
+    public Boolean visitAssignExpr(Expr.Assign expr) {
+        if (interpreter.depthOf(expr) == null) globalNames.add(expr.name.lexeme);
+        return isLocal(expr.name) && analyze(expr.value);
+    }
+
+    @Override
+    public Boolean visitBinaryExpr(Expr.Binary expr) {
+        return analyze(expr.left) && analyze(expr.right);
+    }
+
+    @Override
+    public Boolean visitCallExpr(Expr.Call expr) {
+        if (!(expr.callee instanceof Expr.Variable)) return false;
+
+        Token name = ((Expr.Variable) expr.callee).name;
+        if (current == null || isLocal(name)) return false;
+
+        // A native's name only means the native if nothing outside of the function shadows it
+        if (name.lexeme.equals(current.name.lexeme)) current.recursive = true;
+        else if (!PURE_NATIVES.contains(name.lexeme) || interpreter.depthOf(expr.callee) != null) return false;
+        else nativesCalled.computeIfAbsent(current, function -> new HashSet<>()).add(name.lexeme);
+
+        for (Expr argument : expr.arguments) {
+            if (!analyze(argument)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean visitEditSetExpr(Expr.EditSet expr) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitGetExpr(Expr.Get expr) {
+        // Set methods can change the set they're called on
+        return false;
+    }
+
+    @Override
+    public Boolean visitGroupingExpr(Expr.Grouping expr) {
+        return analyze(expr.expression);
+    }
+
+    @Override
+    public Boolean visitIncrementExpr(Expr.Increment expr) {
+        return isLocal(expr.var);
+    }
+
+    @Override
+    public Boolean visitIncSetExpr(Expr.IncSet expr) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitIndexExpr(Expr.Index expr) {
+        return analyze(expr.set) && analyze(expr.location);
+    }
+
+    @Override
+    public Boolean visitLiteralExpr(Expr.Literal expr) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitLogicalExpr(Expr.Logical expr) {
+        return analyze(expr.left) && analyze(expr.right);
+    }
+
+    @Override
+    public Boolean visitPutExpr(Expr.Put expr) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitSetExpr(Expr.Set expr) {
+        for (Expr value : expr.values) {
+            if (!analyze(value)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean visitSliceExpr(Expr.Slice expr) {
+        return analyze(expr.set) && analyze(expr.from) && analyze(expr.to);
+    }
+
+    @Override
+    public Boolean visitSuperExpr(Expr.Super expr) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitThisExpr(Expr.This expr) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitUnaryExpr(Expr.Unary expr) {
+        return analyze(expr.right);
+    }
+
+    @Override
+    public Boolean visitVariableExpr(Expr.Variable expr) {
+        return isLocal(expr.name);
+    }
+
+
+    /* --- Statements' visitor methods --- */
+
+    @Override
+    public Boolean visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashSet<>());
+        boolean pure = analyzeAll(stmt.statements);
+        scopes.pop();
+        return pure;
+    }
+
+    @Override
+    public Boolean visitClassStmt(Stmt.Class stmt) {
+        if (current == null && scopes.isEmpty()) globalNames.add(stmt.name.lexeme);
+        for (Stmt.Function method : stmt.methods) {
+            analyzeFunction(method);
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitExitStmt(Stmt.Exit stmt) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitExpressionStmt(Stmt.Expression stmt) {
+        return analyze(stmt.expression);
+    }
+
+    @Override
+    public Boolean visitForeachStmt(Stmt.Foreach stmt) {
+        declare(stmt.iterator);
+        if (stmt.index != null) declare(stmt.index);
+
+        boolean pure = analyze(stmt.iterable);
+        return analyze(stmt.body) && pure;
+    }
+
+    @Override
+    public Boolean visitFunctionStmt(Stmt.Function stmt) {
+        // A function made inside another one captures its locals, which the outer function can't account for
+        declare(stmt.name);
+        analyzeFunction(stmt);
+        return false;
+    }
+
+    @Override
+    public Boolean visitIfStmt(Stmt.If stmt) {
+        boolean pure = analyze(stmt.condition);
+        pure &= analyze(stmt.thenBranch);
+        if (stmt.elseBranch != null) pure &= analyze(stmt.elseBranch);
+        return pure;
+    }
+
+    @Override
+    public Boolean visitNextStmt(Stmt.Next stmt) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitOpenStmt(Stmt.Open stmt) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitPrintStmt(Stmt.Print stmt) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitReturnStmt(Stmt.Return stmt) {
+        return stmt.value == null || analyze(stmt.value);
+    }
+
+    @Override
+    public Boolean visitVarStmt(Stmt.Var stmt) {
+        boolean pure = stmt.initializer == null || analyze(stmt.initializer);
+        declare(stmt.name);
+        return pure;
+    }
+
+    @Override
+    public Boolean visitWhileStmt(Stmt.While stmt) {
+        boolean pure = analyze(stmt.condition);
+        pure &= analyze(stmt.body);
+        if (stmt.increment != null) pure &= analyze(stmt.increment);
+        return pure;
+    }
+
+    @Override
+    public Boolean visitYieldStmt(Stmt.Yield stmt) {
+        // Calling a generator makes a new one every time, which can't be remembered
+        return false;
+    }
+
+
+    /* --- Utility methods --- */
+
+    private void declare(Token name) {
+        if (!scopes.isEmpty()) scopes.peek().add(name.lexeme);
+        else if (current == null) globalNames.add(name.lexeme);
+    }
+
+    // Determines whether a name refers to something declared inside the function being analyzed
+    private boolean isLocal(Token name) {
+        for (Set<String> scope : scopes) {
+            if (scope.contains(name.lexeme)) return true;
+        }
+        return false;
+    }
+}
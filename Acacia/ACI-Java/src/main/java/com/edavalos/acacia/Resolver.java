@@ -9,6 +9,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
     private final Interpreter interpreter;
     private final Stack<Map<String, Boolean>> scopes = new Stack<>();
     private final Stack<BlockType> nestedBlocks = new Stack<>();
+    private final Stack<Stmt.Function> functions = new Stack<>();
 
     private ClassType currentClass = ClassType.NONE;
 
@@ -47,6 +48,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
 
     private void resolveFunction(Stmt.Function function, BlockType type) {
         nestedBlocks.push(type);
+        functions.push(function);
 
         beginScope();
         for (Token param : function.params) {
@@ -56,6 +58,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
         resolve(function.body);
         endScope();
 
+        functions.pop();
         nestedBlocks.pop();
     }
 
@@ -123,6 +126,9 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
     @Override
     public Void visitEditSetExpr(Expr.EditSet expr) {
         resolve(expr.value);
+        for (Expr index : expr.path) {
+            resolve(index);
+        }
         resolveLocal(expr, expr.name);
         return null;
     }
@@ -147,6 +153,9 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
 
     @Override
     public Void visitIncSetExpr(Expr.IncSet expr) {
+        for (Expr index : expr.path) {
+            resolve(index);
+        }
         resolveLocal(expr, expr.name);
         return null;
     }
@@ -171,6 +180,14 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
         return null;
     }
 
+    @Override
+    public Void visitSliceExpr(Expr.Slice expr) {
+        resolve(expr.set);
+        resolve(expr.from);
+        resolve(expr.to);
+        return null;
+    }
+
     @Override
     public Void visitSuperExpr(Expr.Super expr) {
         if (currentClass == ClassType.NONE) {
@@ -364,6 +381,12 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
             }
 
             resolve(stmt.value);
+
+            // A call returned straight out of a function doesn't need a frame of its own. Loops run their
+            // increments on the way out, so the call has to be made before leaving them
+            BlockType currentBlockType = nestedBlocks.peek();
+            stmt.tail = stmt.value instanceof Expr.Call &&
+                        (currentBlockType == BlockType.FUNCTION || currentBlockType == BlockType.METHOD);
         }
 
         return null;
@@ -390,4 +413,22 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void>  {
         nestedBlocks.pop();
         return null;
     }
+
+    @Override
+    public Void visitYieldStmt(Stmt.Yield stmt) {
+        if (functions.isEmpty()) {
+            Acacia.error(stmt.keyword, "Can't yield outside methods or functions.");
+            return null;
+        }
+
+        if (nestedBlocks.contains(BlockType.INITIALIZER)) {
+            Acacia.error(stmt.keyword, "Can't yield from an initializer.");
+            return null;
+        }
+
+        // Any function that yields is a generator, which hands back its values one at a time instead of running
+        functions.peek().generator = true;
+        if (stmt.value != null) resolve(stmt.value);
+        return null;
+    }
 }
@@ -3,8 +3,24 @@ package com.edavalos.acacia;
 class Return extends RuntimeException {
     final Object value;
 
+    // A call returned straight out of a function, which its caller makes instead, once the function has been left
+    final AcaciaFunction callee;
+    final Object[] arguments;
+    final Token location;
+
     Return(Object value) {
         super(null, null, false, false);
         this.value = value;
+        this.callee = null;
+        this.arguments = null;
+        this.location = null;
+    }
+
+    Return(AcaciaFunction callee, Object[] arguments, Token location) {
+        super(null, null, false, false);
+        this.value = null;
+        this.callee = callee;
+        this.arguments = arguments;
+        this.location = location;
     }
 }
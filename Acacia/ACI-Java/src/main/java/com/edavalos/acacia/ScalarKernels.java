@@ -0,0 +1,61 @@
+package com.edavalos.acacia;
+
+// The bulk numeric kernels as plain loops, for when the Vector API isn't around
+class ScalarKernels implements Kernels {
+    @Override
+    public void add(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = a[aFrom + i] + b[bFrom + i];
+        }
+    }
+
+    @Override
+    public void mul(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = a[aFrom + i] * b[bFrom + i];
+        }
+    }
+
+    @Override
+    public void scale(double[] a, int from, double factor, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = a[from + i] * factor;
+        }
+    }
+
+    @Override
+    public double dot(double[] a, int aFrom, double[] b, int bFrom, int length) {
+        double total = 0.0;
+        for (int i = 0; i < length; i++) {
+            total += a[aFrom + i] * b[bFrom + i];
+        }
+        return total;
+    }
+
+    @Override
+    public double sum(double[] a, int from, int length) {
+        double total = 0.0;
+        for (int i = 0; i < length; i++) {
+            total += a[from + i];
+        }
+        return total;
+    }
+
+    @Override
+    public double min(double[] a, int from, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, a[from + i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int from, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, a[from + i]);
+        }
+        return max;
+    }
+}
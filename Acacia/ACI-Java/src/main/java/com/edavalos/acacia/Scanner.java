@@ -33,6 +33,7 @@ class Scanner {
         keywords.put("this",     THIS);
         keywords.put("true",     TRUE);
         keywords.put("while",    WHILE);
+        keywords.put("yield",    YIELD);
     }
 
     private final String source;
@@ -66,6 +67,7 @@ class Scanner {
             case '[' -> addToken(LEFT_BRACKET);
             case ']' -> addToken(RIGHT_BRACKET);
             case ',' -> addToken(COMMA);
+            case ':' -> addToken(COLON);
             case '.' -> addToken(DOT);
             case '-' -> {
                 if (match('-')) {
@@ -0,0 +1,567 @@
+package com.edavalos.acacia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Saves values to a file in a compact binary form and loads them back, streaming through a buffer both ways. Each
+// value starts with a tag saying what it is. Sets, instances, arrays and bytes get an id the first time they're
+// written, and are only written as a reference to it after that, so anything shared is still shared once it's loaded
+// back and anything inside of itself doesn't go on forever. Strings are written once each in the same way. Values can
+// also be turned into bytes and back on their own, without the header of a file
+final class Snapshot {
+    // "ACIS", then which version of the format follows
+    private static final int MAGIC = 0x41434953;
+    private static final byte VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Values turned into bytes on their own start out in a small buffer, which grows as needed
+    private static final int ENCODE_BUFFER_SIZE = 256;
+
+    // What each value is, written as a byte before it
+    private static final byte NIL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte NUMBER = 3;       // 8 bytes
+    private static final byte INTEGER = 4;      // a whole number that fits in an int, as a zigzag varint
+    private static final byte STRING = 5;       // a length, then that many bytes of UTF-8
+    private static final byte STRING_REF = 6;   // the id of a string that was already written
+    private static final byte SET = 7;          // a length, then that many values
+    private static final byte NUMBER_SET = 8;   // a length, then that many numbers of 8 bytes each
+    private static final byte INSTANCE = 9;     // a class name and a number of fields, then a name and value for each
+    private static final byte ARRAY = 10;       // a number of dimensions and the size of each, then every number
+    private static final byte BYTES = 11;       // a length, then that many bytes
+    private static final byte RANGE = 12;       // the start, end and step, 8 bytes each
+    private static final byte REFERENCE = 13;   // the id of a set, instance, array or bytes that was already written
+
+    private Snapshot() {}
+
+    // Writes a value to a file, replacing it only once the whole value has been written
+    static void write(Object value, String path, Token location) {
+        Path target = Paths.get(path);
+        Path temporary = Paths.get(path + ".tmp");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            Writer writer = new Writer(channel, ByteBuffer.allocate(BUFFER_SIZE), location);
+            writer.buffer.putInt(MAGIC).put(VERSION);
+            writer.writeAll(value);
+            writer.flush();
+            channel.close();
+
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException exception) {
+            try {
+                if (channel != null) channel.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The file that was there before is still there, which is what matters
+            }
+
+            if (exception instanceof RuntimeError) throw (RuntimeError) exception;
+            throw Natives.fileError("write to", path, exception, location);
+        }
+    }
+
+    static Object read(String path, Interpreter interpreter, Token location) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel, ByteBuffer.allocate(BUFFER_SIZE).flip(), interpreter, location,
+                                       "Snapshot file '" + path + "'");
+
+            boolean snapshot = channel.size() >= Integer.BYTES + 1;
+            if (snapshot) {
+                reader.ensure(Integer.BYTES + 1);
+                snapshot = reader.buffer.getInt() == MAGIC;
+            }
+            if (!snapshot) {
+                throw new RuntimeError(location, "File '" + path + "' isn't a snapshot made by serialize().");
+            }
+            if (reader.buffer.get() != VERSION) {
+                throw new RuntimeError(location, "File '" + path + "' is a snapshot from another version.");
+            }
+
+            return reader.readAll();
+        } catch (RuntimeError error) {
+            throw error;
+        } catch (IOException | RuntimeException exception) {
+            throw Natives.fileError("read", path, exception, location);
+        }
+    }
+
+    // Turns a value into bytes on their own, from the start of the buffer given back up to its limit
+    static ByteBuffer encode(Object value, Token location) {
+        Writer writer = new Writer(null, ByteBuffer.allocate(ENCODE_BUFFER_SIZE), location);
+        try {
+            writer.writeAll(value);
+        } catch (IOException exception) {
+            // Nothing is written anywhere but the buffer
+            throw new IllegalStateException(exception);
+        }
+        return writer.buffer.flip();
+    }
+
+    // Gets back a value from the bytes encode() gave, reading from the position of the buffer up to its limit
+    static Object decode(ByteBuffer bytes, Interpreter interpreter, Token location, String description) {
+        try {
+            return new Reader(null, bytes, interpreter, location, description).readAll();
+        } catch (IOException exception) {
+            // Nothing is read from anywhere but the buffer
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static final class Writer {
+        // Where the buffer goes whenever it fills up, or null to grow the buffer instead
+        private final WritableByteChannel channel;
+        private ByteBuffer buffer;
+        private final Token location;
+
+        private final Map<Object, Integer> ids = new IdentityHashMap<>();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        // The sets and instances that haven't had everything in them written yet, innermost first. Instances go
+        // through their fields as map entries, which can never be values themselves
+        private final Deque<Iterator<?>> pending = new ArrayDeque<>();
+
+        Writer(WritableByteChannel channel, ByteBuffer buffer, Token location) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.location = location;
+        }
+
+        void writeAll(Object root) throws IOException {
+            writeValue(root);
+            while (!pending.isEmpty()) {
+                Iterator<?> inside = pending.peek();
+                if (!inside.hasNext()) {
+                    pending.pop();
+                    continue;
+                }
+
+                Object next = inside.next();
+                if (next instanceof Map.Entry) {
+                    Map.Entry<?, ?> field = (Map.Entry<?, ?>) next;
+                    writeString((String) field.getKey());
+                    writeValue(field.getValue());
+                } else {
+                    writeValue(next);
+                }
+            }
+        }
+
+        // Writes a value, leaving whatever's inside a set or instance to be written after it
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                tag(NIL);
+            } else if (value instanceof Boolean) {
+                tag((boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Double) {
+                writeNumber((double) value);
+            } else if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof AcaciaRange) {
+                AcaciaRange range = (AcaciaRange) value;
+                tag(RANGE);
+                putDouble(range.start());
+                putDouble(range.end());
+                putDouble(range.step());
+            } else if (value instanceof AcaciaInstance || value instanceof AcaciaArray ||
+                       value instanceof AcaciaBytes) {
+                Integer id = ids.get(value);
+                if (id != null) {
+                    tag(REFERENCE);
+                    putVarint(id);
+                    return;
+                }
+                ids.put(value, ids.size());
+
+                if (value instanceof AcaciaSet) writeSet(((AcaciaSet) value).getAll());
+                else if (value instanceof AcaciaArray) writeArray((AcaciaArray) value);
+                else if (value instanceof AcaciaBytes) writeBytes((AcaciaBytes) value);
+                else writeInstance((AcaciaInstance) value);
+            } else {
+                throw new RuntimeError(location, "Cannot serialize " + Acacia.stringify(value) + ".");
+            }
+        }
+
+        private void writeNumber(double number) throws IOException {
+            if (number == (int) number && Double.doubleToRawLongBits(number) != Double.doubleToRawLongBits(-0.0)) {
+                int whole = (int) number;
+                tag(INTEGER);
+                putVarint((whole << 1) ^ (whole >> 31));
+            } else {
+                tag(NUMBER);
+                putDouble(number);
+            }
+        }
+
+        private void writeString(String text) throws IOException {
+            Integer id = strings.get(text);
+            if (id != null) {
+                tag(STRING_REF);
+                putVarint(id);
+                return;
+            }
+            strings.put(text, strings.size());
+
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            tag(STRING);
+            putVarint(utf8.length);
+            putBytes(ByteBuffer.wrap(utf8));
+        }
+
+        // Sets of nothing but numbers are written as a block of them, without a tag for each
+        private void writeSet(List<Object> elements) throws IOException {
+            boolean numbers = !elements.isEmpty();
+            for (int i = 0; i < elements.size() && numbers; i++) {
+                numbers = elements.get(i) instanceof Double;
+            }
+
+            tag(numbers ? NUMBER_SET : SET);
+            putVarint(elements.size());
+            if (!numbers) {
+                if (!elements.isEmpty()) pending.push(elements.iterator());
+                return;
+            }
+
+            for (Object element : elements) {
+                putDouble((double) element);
+            }
+        }
+
+        private void writeArray(AcaciaArray array) throws IOException {
+            int[] shape = array.shape();
+            tag(ARRAY);
+            putVarint(shape.length);
+            for (int size : shape) {
+                putVarint(size);
+            }
+
+            double[] block = array.block();
+            for (int i = array.start(); i < array.start() + array.total(); i++) {
+                putDouble(block[i]);
+            }
+        }
+
+        private void writeBytes(AcaciaBytes bytes) throws IOException {
+            tag(BYTES);
+            putVarint(bytes.cSize());
+            putBytes(bytes.buffer());
+        }
+
+        private void writeInstance(AcaciaInstance instance) throws IOException {
+            Map<String, Object> fields = instance.fields();
+            tag(INSTANCE);
+            writeString(instance.klass.name);
+            putVarint(fields.size());
+            if (!fields.isEmpty()) pending.push(fields.entrySet().iterator());
+        }
+
+        private void tag(byte tag) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(tag);
+        }
+
+        private void putVarint(int value) throws IOException {
+            if (buffer.remaining() < 5) flush();
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void putDouble(double value) throws IOException {
+            if (buffer.remaining() < Double.BYTES) flush();
+            buffer.putDouble(value);
+        }
+
+        private void putBytes(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                if (!buffer.hasRemaining()) flush();
+
+                int count = Math.min(bytes.remaining(), buffer.remaining());
+                ByteBuffer part = bytes.duplicate();
+                part.limit(part.position() + count);
+                buffer.put(part);
+                bytes.position(bytes.position() + count);
+            }
+        }
+
+        void flush() throws IOException {
+            if (channel == null) {
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer = bigger.put(buffer.flip());
+                return;
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static final class Reader {
+        // Where more of the buffer comes from once it's all been read, or null if the buffer already has everything
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final Interpreter interpreter;
+        private final Token location;
+        // What's being read, for saying what's corrupt
+        private final String description;
+
+        private final List<Object> objects = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, AcaciaClass> classes = new HashMap<>();
+
+        // A set or instance that's been made but hasn't been given everything in it yet
+        private static final class Unfilled {
+            final List<Object> elements;
+            final Map<String, Object> fields;
+            int remaining;
+
+            Unfilled(List<Object> elements, Map<String, Object> fields, int remaining) {
+                this.elements = elements;
+                this.fields = fields;
+                this.remaining = remaining;
+            }
+        }
+
+        private final Deque<Unfilled> pending = new ArrayDeque<>();
+
+        Reader(ReadableByteChannel channel, ByteBuffer buffer, Interpreter interpreter, Token location,
+               String description) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.interpreter = interpreter;
+            this.location = location;
+            this.description = description;
+        }
+
+        Object readAll() throws IOException {
+            Object root = readValue();
+            while (!pending.isEmpty()) {
+                Unfilled unfilled = pending.peek();
+                if (unfilled.remaining == 0) {
+                    pending.pop();
+                    continue;
+                }
+
+                unfilled.remaining--;
+                if (unfilled.fields != null) {
+                    String name = readString();
+                    unfilled.fields.put(name, readValue());
+                } else {
+                    unfilled.elements.add(readValue());
+                }
+            }
+            return root;
+        }
+
+        // Reads a value, leaving whatever's inside a set or instance to be read after it
+        private Object readValue() throws IOException {
+            byte tag = getByte();
+            switch (tag) {
+                case NIL:
+                    return null;
+                case FALSE:
+                    return false;
+                case TRUE:
+                    return true;
+                case NUMBER:
+                    return getDouble();
+                case INTEGER: {
+                    int zigzag = getVarint();
+                    return (double) ((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case STRING:
+                case STRING_REF:
+                    return readString(tag);
+                case SET: {
+                    int count = getCount();
+                    List<Object> elements = new ArrayList<>(Math.min(count, BUFFER_SIZE));
+                    AcaciaSet set = new AcaciaSet(elements);
+                    objects.add(set);
+                    if (count > 0) pending.push(new Unfilled(elements, null, count));
+                    return set;
+                }
+                case NUMBER_SET: {
+                    int count = getCount();
+                    List<Object> elements = new ArrayList<>(Math.min(count, BUFFER_SIZE));
+                    AcaciaSet set = new AcaciaSet(elements);
+                    objects.add(set);
+                    for (int i = 0; i < count; i++) {
+                        elements.add(getDouble());
+                    }
+                    return set;
+                }
+                case INSTANCE: {
+                    AcaciaClass klass = classNamed(readString());
+                    int count = getCount();
+                    Map<String, Object> fields = klass == JsonReader.JSON_CLASS ? new LinkedHashMap<>() :
+                            new HashMap<>();
+                    AcaciaInstance instance = new AcaciaInstance(klass, fields);
+                    objects.add(instance);
+                    if (count > 0) pending.push(new Unfilled(null, fields, count));
+                    return instance;
+                }
+                case ARRAY: {
+                    int[] shape = new int[getCount()];
+                    long total = 1;
+                    for (int i = 0; i < shape.length; i++) {
+                        shape[i] = getCount();
+                        total *= shape[i];
+                    }
+                    if (shape.length == 0 || total > Integer.MAX_VALUE) throw corrupt();
+
+                    AcaciaArray array = new AcaciaArray(shape, 0.0);
+                    objects.add(array);
+                    double[] block = array.block();
+                    for (int i = 0; i < block.length; i++) {
+                        block[i] = getDouble();
+                    }
+                    return array;
+                }
+                case BYTES: {
+                    AcaciaBytes bytes = new AcaciaBytes(getCount());
+                    objects.add(bytes);
+                    getBytes(bytes.buffer());
+                    return bytes;
+                }
+                case RANGE:
+                    return new AcaciaRange(getDouble(), getDouble(), getDouble(), location);
+                case REFERENCE: {
+                    int id = getCount();
+                    if (id >= objects.size()) throw corrupt();
+                    return objects.get(id);
+                }
+                default:
+                    throw corrupt();
+            }
+        }
+
+        private String readString() throws IOException {
+            byte tag = getByte();
+            if (tag != STRING && tag != STRING_REF) throw corrupt();
+            return readString(tag);
+        }
+
+        private String readString(byte tag) throws IOException {
+            if (tag == STRING_REF) {
+                int id = getCount();
+                if (id >= strings.size()) throw corrupt();
+                return strings.get(id);
+            }
+
+            int length = getCount();
+            if (length <= buffer.capacity()) ensure(length);
+
+            String text;
+            if (buffer.remaining() >= length && buffer.hasArray()) {
+                text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                                  StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] utf8 = new byte[length];
+                getBytes(ByteBuffer.wrap(utf8));
+                text = new String(utf8, StandardCharsets.UTF_8);
+            }
+
+            strings.add(text);
+            return text;
+        }
+
+        // Uses the class of the same name if the program has one, or else a class of that name with no methods
+        private AcaciaClass classNamed(String name) {
+            return classes.computeIfAbsent(name, missing -> {
+                Object global = interpreter.globals.getAt(0, name);
+                if (global instanceof AcaciaClass) return (AcaciaClass) global;
+                if (name.equals(JsonReader.JSON_CLASS.name)) return JsonReader.JSON_CLASS;
+                return new AcaciaClass(name, null, Map.of());
+            });
+        }
+
+        private byte getByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        }
+
+        private double getDouble() throws IOException {
+            ensure(Double.BYTES);
+            return buffer.getDouble();
+        }
+
+        private int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = getByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw corrupt();
+        }
+
+        // Reads a length or id, which can't be negative
+        private int getCount() throws IOException {
+            int count = getVarint();
+            if (count < 0) throw corrupt();
+            return count;
+        }
+
+        private void getBytes(ByteBuffer into) throws IOException {
+            while (into.hasRemaining()) {
+                ensure(1);
+
+                int count = Math.min(into.remaining(), buffer.remaining());
+                ByteBuffer part = buffer.duplicate();
+                part.limit(part.position() + count);
+                into.put(part);
+                buffer.position(buffer.position() + count);
+            }
+        }
+
+        // Reads more of the file until there are at least a number of bytes in the buffer to read
+        private void ensure(int count) throws IOException {
+            if (buffer.remaining() >= count) return;
+            if (channel == null) throw corrupt();
+
+            buffer.compact();
+            while (buffer.position() < count) {
+                if (channel.read(buffer) == -1) {
+                    buffer.flip();
+                    throw corrupt();
+                }
+            }
+            buffer.flip();
+        }
+
+        private RuntimeError corrupt() {
+            return new RuntimeError(location, description + " is corrupt.");
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.edavalos.acacia;
 
 import java.util.List;
-import java.util.Stack;
 
 abstract class Stmt {
   interface Visitor<R> {
@@ -18,6 +17,7 @@ abstract class Stmt {
     R visitReturnStmt(Return stmt);
     R visitVarStmt(Var stmt);
     R visitWhileStmt(While stmt);
+    R visitYieldStmt(Yield stmt);
   }
   static class Block extends Stmt {
     Block(List<Stmt> statements) {
@@ -111,6 +111,16 @@ abstract class Stmt {
     final Token name;
     final List<Token> params;
     final List<Stmt> body;
+
+    int calls;
+    NodeState state = NodeState.UNINITIALIZED;
+    Object compiled;
+    boolean recursive;
+    boolean pure;
+    Memo memo;
+    NodeState inlining = NodeState.UNINITIALIZED;
+    Inliner.Body inlined;
+    boolean generator;
   }
 
   static class If extends Stmt {
@@ -184,6 +194,8 @@ abstract class Stmt {
 
     final Token keyword;
     final Expr value;
+
+    boolean tail;
   }
 
   static class Var extends Stmt {
@@ -218,6 +230,21 @@ abstract class Stmt {
     final Expr increment;
   }
 
+  static class Yield extends Stmt {
+    Yield(Token keyword, Expr value) {
+      this.keyword = keyword;
+      this.value = value;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitYieldStmt(this);
+    }
+
+    final Token keyword;
+    final Expr value;
+  }
+
 
   abstract <R> R accept(Visitor<R> visitor);
 }
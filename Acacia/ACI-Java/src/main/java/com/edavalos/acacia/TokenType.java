@@ -3,7 +3,7 @@ package com.edavalos.acacia;
 enum TokenType {
     // Single-character tokens:
     LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE, LEFT_BRACKET, RIGHT_BRACKET,
-    CARET, COMMA, DOT, MINUS, PLUS, SEMICOLON, SLASH, STAR,
+    CARET, COLON, COMMA, DOT, MINUS, PLUS, SEMICOLON, SLASH, STAR,
 
     // One or two character tokens:
     BANG, BANG_EQUAL,
@@ -18,7 +18,7 @@ enum TokenType {
 
     // Keywords:
     AND, EXIT, CLASS, NEXT, DEF, ELSE, FALSE, FOR, FOREACH, IF, OPEN,
-    LET, MATCH, NIL, OR, PRINT, RETURN, SUPER, THIS, TRUE, WHILE,
+    LET, MATCH, NIL, OR, PRINT, RETURN, SUPER, THIS, TRUE, WHILE, YIELD,
 
     EOF
 }
@@ -0,0 +1,463 @@
+package com.edavalos.acacia;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+// Works out which types local variables are guaranteed to hold at each point in the code, and marks the
+// operations whose operand types are proven so the interpreter can skip checking them
+class TypeInferrer implements Expr.Visitor<ValueType>, Stmt.Visitor<Void> {
+    // Declarations visible in each scope, and how many functions deep each one was made
+    private final Stack<Map<String, Token>> scopes = new Stack<>();
+    private final Map<Token, Integer> levels = new HashMap<>();
+
+    // Locals that closures assign to, which can change at any call and are therefore never proven
+    private final Set<Token> capturedWrites = new HashSet<>();
+
+    // Type held by each local declaration at the current point in the code
+    private Map<Token, ValueType> types = new HashMap<>();
+    private Stack<Loop> loops = new Stack<>();
+    private int level = 0;
+    private boolean collecting;
+
+    // Types flowing out of a loop through 'exit' and back to its start through 'next'
+    private static class Loop {
+        Map<Token, ValueType> exits = null;
+        Map<Token, ValueType> nexts = null;
+    }
+
+    void infer(List<Stmt> statements) {
+        // The first pass only finds which locals closures assign to, the second one does the actual inference
+        collecting = true;
+        walk(statements);
+
+        collecting = false;
+        walk(statements);
+    }
+
+    private void walk(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            walk(statement);
+        }
+    }
+
+    private void walk(Stmt stmt) {
+        stmt.accept(this);
+    }
+
+    private ValueType walk(Expr expr) {
+        return expr.accept(this);
+    }
+
+
+    /* --- Expressions' visitor methods --- */
+
+    @Override
+    public ValueType visitAssignExpr(Expr.Assign expr) {
+        ValueType type = walk(expr.value);
+        write(expr.name, type);
+        return type;
+    }
+
+    @Override
+    public ValueType visitBinaryExpr(Expr.Binary expr) {
+        ValueType left = walk(expr.left);
+        ValueType right = walk(expr.right);
+
+        boolean numbers = left == ValueType.NUMBER && right == ValueType.NUMBER;
+        boolean strings = left == ValueType.STRING && right == ValueType.STRING;
+
+        switch (expr.operator.type) {
+            // Arithmetic only ever yields a number (or fails)
+            case MINUS, SLASH, STAR, MODULO, CARET -> {
+                expr.operands = numbers ? ValueType.NUMBER : null;
+                return ValueType.NUMBER;
+            }
+            // Addition yields a number for numbers, and a string as soon as either side is one
+            case PLUS -> {
+                expr.operands = numbers ? ValueType.NUMBER : strings ? ValueType.STRING : null;
+                if (numbers) return ValueType.NUMBER;
+                if (left == ValueType.STRING || right == ValueType.STRING) return ValueType.STRING;
+                return ValueType.ANY;
+            }
+            // Comparisons and equality always yield a boolean
+            case GREATER, GREATER_EQUAL, LESS, LESS_EQUAL, BANG_EQUAL, EQUAL_EQUAL -> {
+                expr.operands = numbers ? ValueType.NUMBER : strings ? ValueType.STRING : null;
+                return ValueType.BOOLEAN;
+            }
+            default -> {
+                expr.operands = null;
+                return ValueType.ANY;
+            }
+        }
+    }
+
+    @Override
+    public ValueType visitCallExpr(Expr.Call expr) {
+        walk(expr.callee);
+        for (Expr argument : expr.arguments) {
+            walk(argument);
+        }
+        return ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitEditSetExpr(Expr.EditSet expr) {
+        ValueType type = walk(expr.value);
+        for (Expr index : expr.path) {
+            walk(index);
+        }
+        return type;
+    }
+
+    @Override
+    public ValueType visitGetExpr(Expr.Get expr) {
+        walk(expr.object);
+        return ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitGroupingExpr(Expr.Grouping expr) {
+        return walk(expr.expression);
+    }
+
+    @Override
+    public ValueType visitIncrementExpr(Expr.Increment expr) {
+        expr.operand = read(expr.var) == ValueType.NUMBER ? ValueType.NUMBER : null;
+
+        // Incrementing anything but a number fails, so if it gets past this the variable holds a number
+        write(expr.var, ValueType.NUMBER);
+        return ValueType.NUMBER;
+    }
+
+    @Override
+    public ValueType visitIncSetExpr(Expr.IncSet expr) {
+        for (Expr index : expr.path) {
+            walk(index);
+        }
+        return ValueType.NUMBER;
+    }
+
+    @Override
+    public ValueType visitIndexExpr(Expr.Index expr) {
+        walk(expr.location);
+        ValueType set = walk(expr.set);
+
+        // Indexing a string yields a single character string
+        return set == ValueType.STRING ? ValueType.STRING : ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitLiteralExpr(Expr.Literal expr) {
+        return ValueType.of(expr.value);
+    }
+
+    @Override
+    public ValueType visitLogicalExpr(Expr.Logical expr) {
+        ValueType left = walk(expr.left);
+
+        // The right side might never be evaluated, so what it does to variables only maybe happens
+        Map<Token, ValueType> skipped = types;
+        types = new HashMap<>(skipped);
+        ValueType right = walk(expr.right);
+        types = join(skipped, types);
+
+        return ValueType.join(left, right);
+    }
+
+    @Override
+    public ValueType visitPutExpr(Expr.Put expr) {
+        walk(expr.object);
+        return walk(expr.value);
+    }
+
+    @Override
+    public ValueType visitSetExpr(Expr.Set expr) {
+        for (Expr value : expr.values) {
+            walk(value);
+        }
+        return ValueType.SET;
+    }
+
+    @Override
+    public ValueType visitSliceExpr(Expr.Slice expr) {
+        ValueType set = walk(expr.set);
+        walk(expr.from);
+        walk(expr.to);
+
+        // Slicing a string yields a string, and slicing a set yields a set
+        return set == ValueType.STRING || set == ValueType.SET ? set : ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitSuperExpr(Expr.Super expr) {
+        return ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitThisExpr(Expr.This expr) {
+        return ValueType.ANY;
+    }
+
+    @Override
+    public ValueType visitUnaryExpr(Expr.Unary expr) {
+        ValueType right = walk(expr.right);
+
+        if (expr.operator.type == TokenType.MINUS) {
+            expr.operand = right == ValueType.NUMBER ? ValueType.NUMBER : null;
+            return ValueType.NUMBER;
+        }
+
+        expr.operand = null;
+        return ValueType.BOOLEAN;
+    }
+
+    @Override
+    public ValueType visitVariableExpr(Expr.Variable expr) {
+        return read(expr.name);
+    }
+
+
+    /* --- Statements' visitor methods --- */
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashMap<>());
+        walk(stmt.statements);
+        scopes.pop();
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        declare(stmt.name, ValueType.ANY);
+        if (stmt.superclass != null) walk(stmt.superclass);
+
+        for (Stmt.Function method : stmt.methods) {
+            function(method);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExitStmt(Stmt.Exit stmt) {
+        if (!loops.isEmpty()) loops.peek().exits = join(loops.peek().exits, types);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        walk(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitForeachStmt(Stmt.Foreach stmt) {
+        declare(stmt.iterator, ValueType.ANY);
+        if (stmt.index != null) declare(stmt.index, ValueType.ANY);
+
+        // Iterating a string hands out single character strings, anything else could hold whatever
+        ValueType element = walk(stmt.iterable) == ValueType.STRING ? ValueType.STRING : ValueType.ANY;
+
+        Map<Token, ValueType> entry = types;
+        Map<Token, ValueType> start = entry;
+        while (true) {
+            types = new HashMap<>(start);
+            write(stmt.iterator, element);
+
+            Loop loop = new Loop();
+            loops.push(loop);
+            walk(stmt.body);
+            loops.pop();
+
+            // Keep going around until the types at the start of the loop stop changing
+            Map<Token, ValueType> end = join(join(types, loop.nexts), loop.exits);
+            Map<Token, ValueType> next = join(entry, end);
+            if (next.equals(start)) {
+                types = next;
+                write(stmt.iterator, ValueType.ANY);
+                return null;
+            }
+            start = next;
+        }
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        declare(stmt.name, ValueType.ANY);
+        function(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        walk(stmt.condition);
+        Map<Token, ValueType> before = types;
+
+        types = new HashMap<>(before);
+        walk(stmt.thenBranch);
+        Map<Token, ValueType> afterThen = types;
+
+        types = new HashMap<>(before);
+        if (stmt.elseBranch != null) walk(stmt.elseBranch);
+
+        types = join(afterThen, types);
+        return null;
+    }
+
+    @Override
+    public Void visitNextStmt(Stmt.Next stmt) {
+        if (!loops.isEmpty()) loops.peek().nexts = join(loops.peek().nexts, types);
+        return null;
+    }
+
+    @Override
+    public Void visitOpenStmt(Stmt.Open stmt) {
+        walk(stmt.file);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        walk(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value != null) walk(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        ValueType type = ValueType.NIL;
+        if (stmt.initializer != null) {
+            type = walk(stmt.initializer);
+        }
+
+        declare(stmt.name, type);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        Map<Token, ValueType> entry = types;
+        Map<Token, ValueType> start = entry;
+        while (true) {
+            types = new HashMap<>(start);
+            walk(stmt.condition);
+            Map<Token, ValueType> finished = types;
+
+            types = new HashMap<>(finished);
+            Loop loop = new Loop();
+            loops.push(loop);
+            walk(stmt.body);
+            loops.pop();
+
+            // The increment runs after every pass through the body, even ones cut short by 'next' or 'exit'
+            types = join(join(types, loop.nexts), loop.exits);
+            if (stmt.increment != null) walk(stmt.increment);
+
+            // Keep going around until the types at the start of the loop stop changing
+            Map<Token, ValueType> next = join(entry, types);
+            if (next.equals(start)) {
+                types = join(finished, types);
+                return null;
+            }
+            start = next;
+        }
+    }
+
+    @Override
+    public Void visitYieldStmt(Stmt.Yield stmt) {
+        // Locals that closures assign to are never proven, so whatever runs while the generator is paused can't
+        // invalidate anything it knows
+        if (stmt.value != null) walk(stmt.value);
+        return null;
+    }
+
+
+    /* --- Utility methods --- */
+
+    // Walks through a function's body in a scope of its own, where nothing is known about its parameters
+    private void function(Stmt.Function function) {
+        Map<Token, ValueType> enclosingTypes = types;
+        Stack<Loop> enclosingLoops = loops;
+        types = new HashMap<>();
+        loops = new Stack<>();
+        level++;
+
+        scopes.push(new HashMap<>());
+        for (Token param : function.params) {
+            declare(param, ValueType.ANY);
+        }
+        walk(function.body);
+        scopes.pop();
+
+        level--;
+        types = enclosingTypes;
+        loops = enclosingLoops;
+    }
+
+    // Adds a local declaration to the innermost scope. Globals can be reassigned from anywhere, so they aren't tracked
+    private void declare(Token name, ValueType type) {
+        if (scopes.isEmpty()) return;
+
+        scopes.peek().put(name.lexeme, name);
+        levels.put(name, level);
+        types.put(name, type);
+    }
+
+    // Gets the type a variable is known to hold right now
+    private ValueType read(Token name) {
+        Token declaration = lookUp(name);
+        if (declaration == null || !isTracked(declaration)) return ValueType.ANY;
+
+        ValueType type = types.get(declaration);
+        return type == null ? ValueType.ANY : type;
+    }
+
+    // Records the type a variable holds from now on
+    private void write(Token name, ValueType type) {
+        Token declaration = lookUp(name);
+        if (declaration == null) return;
+
+        if (levels.get(declaration) != level) {
+            if (collecting) capturedWrites.add(declaration);
+            return;
+        }
+
+        types.put(declaration, type);
+    }
+
+    // Only locals of the function being walked through, that no closure assigns to, can be followed
+    private boolean isTracked(Token declaration) {
+        return levels.get(declaration) == level && !capturedWrites.contains(declaration);
+    }
+
+    // Finds the declaration a name refers to, or null if it refers to a global
+    private Token lookUp(Token name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Token declaration = scopes.get(i).get(name.lexeme);
+            if (declaration != null) return declaration;
+        }
+
+        return null;
+    }
+
+    // Merges the types from two paths through the code
+    private static Map<Token, ValueType> join(Map<Token, ValueType> a, Map<Token, ValueType> b) {
+        if (a == null) return b == null ? null : new HashMap<>(b);
+        if (b == null) return new HashMap<>(a);
+
+        Map<Token, ValueType> joined = new HashMap<>(a);
+        for (Map.Entry<Token, ValueType> entry : b.entrySet()) {
+            joined.merge(entry.getKey(), entry.getValue(), ValueType::join);
+        }
+        return joined;
+    }
+}
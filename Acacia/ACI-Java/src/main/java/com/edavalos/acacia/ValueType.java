@@ -0,0 +1,25 @@
+package com.edavalos.acacia;
+
+enum ValueType {
+    NUMBER, STRING, BOOLEAN, SET, NIL,
+
+    // Could be anything, or simply not known ahead of time
+    ANY;
+
+    // Gets the type of a runtime value
+    static ValueType of(Object value) {
+        if (value == null) return NIL;
+        if (value instanceof Double) return NUMBER;
+        if (value instanceof String) return STRING;
+        if (value instanceof Boolean) return BOOLEAN;
+        if (value instanceof AcaciaSet) return SET;
+        return ANY;
+    }
+
+    // Gets the type that covers both of two types
+    static ValueType join(ValueType a, ValueType b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a == b ? a : ANY;
+    }
+}
@@ -14,26 +14,34 @@ public final class GenerateAST {
         }
         String outputDir = args[0];
 
-        // All our expression tree types
+        // All our expression tree types (anything after a '|' is filled in by later passes, not the parser)
         List<String> exprs = Arrays.asList(
                 "Assign   : Token name, Expr value",
-                "Binary   : Expr left, Token operator, Expr right",
-                "Call     : Expr callee, Token paren, List<Expr> arguments",
-                "EditSet  : Token name, Stack<Expr> depth, Expr value",
-                "Get      : Expr object, Token name",
+                "Binary   : Expr left, Token operator, Expr right" +
+                          " | ValueType operands, NodeState state = NodeState.UNINITIALIZED," +
+                          " ValueType observed",
+                "Call     : Expr callee, Token paren, List<Expr> arguments" +
+                          " | NodeState state = NodeState.UNINITIALIZED, Object target," +
+                          " ValueType receiver",
+                "EditSet  : Token name, List<Expr> path, Expr value",
+                "Get      : Expr object, Token name" +
+                          " | NodeState state = NodeState.UNINITIALIZED, Object shape," +
+                          " Object target",
                 "Grouping : Expr expression",
-                "Increment: Token var, Token type",
-                "IncSet   : Token name, Stack<Expr> depth, Token type",
+                "Increment: Token var, Token type | ValueType operand",
+                "IncSet   : Token name, List<Expr> path, Token type",
                 "Index    : Expr set, Token name, Token bracket," +
                           " Expr location",
                 "Literal  : Object value",
                 "Logical  : Expr left, Token operator, Expr right",
                 "Put      : Expr object, Token name, Expr value",
                 "Set      : List<Expr> values",
+                "Slice    : Expr set, Token bracket, Expr from, Expr to",
                 "Super    : Token keyword, Token method",
                 "This     : Token keyword",
-                "Unary    : Token operator, Expr right",
-                "Variable : Token name"
+                "Unary    : Token operator, Expr right | ValueType operand",
+                "Variable : Token name" +
+                          " | NodeState state = NodeState.UNINITIALIZED, int depth"
         );
 
         // All our statement tree types
@@ -46,15 +54,20 @@ public final class GenerateAST {
                 "Foreach    : Token iterator, Expr iterable," +
                             " Token iterableName, Token index, Stmt body",
                 "Function   : Token name, List<Token> params," +
-                            " List<Stmt> body",
+                            " List<Stmt> body" +
+                            " | int calls, NodeState state = NodeState.UNINITIALIZED," +
+                            " Object compiled, boolean recursive, boolean pure, Memo memo," +
+                            " NodeState inlining = NodeState.UNINITIALIZED, Inliner.Body inlined," +
+                            " boolean generator",
                 "If         : Expr condition, Stmt thenBranch," +
                             " Stmt elseBranch",
                 "Next       : Token keyword",
                 "Open       : Token keyword, Expr file",
                 "Print      : Expr expression",
-                "Return     : Token keyword, Expr value",
+                "Return     : Token keyword, Expr value | boolean tail",
                 "Var        : Token name, Expr initializer",
-                "While      : Expr condition, Stmt body, Expr increment"
+                "While      : Expr condition, Stmt body, Expr increment",
+                "Yield      : Token keyword, Expr value"
         );
 
         defineAst(outputDir, "Expr", exprs);
@@ -68,7 +81,6 @@ public final class GenerateAST {
         writer.println("package com.edavalos.acacia;");
         writer.println();
         writer.println("import java.util.List;");
-        writer.println("import java.util.Stack;");
         writer.println();
         writer.println("abstract class " + baseName + " {");
 
@@ -77,8 +89,9 @@ public final class GenerateAST {
         // The AST classes.
         for (String type : types) {
             String className = type.split(":")[0].trim();
-            String fields = type.split(":")[1].trim();
-            defineType(writer, baseName, className, fields);
+            String[] fields = type.split(":")[1].split("\\|");
+            String annotations = fields.length > 1 ? fields[1].trim() : null;
+            defineType(writer, baseName, className, fields[0].trim(), annotations);
         }
 
         // The base accept() method.
@@ -101,7 +114,8 @@ public final class GenerateAST {
         writer.println("  }");
     }
 
-    private static void defineType(PrintWriter writer, String baseName, String className, String fieldList) {
+    private static void defineType(PrintWriter writer, String baseName, String className,
+                                   String fieldList, String annotationList) {
         writer.println("  static class " + className + " extends " + baseName + " {");
 
         // Constructor.
@@ -129,6 +143,14 @@ public final class GenerateAST {
             writer.println("    final " + field + ";");
         }
 
+        // Annotations, which stay mutable.
+        if (annotationList != null) {
+            writer.println();
+            for (String annotation : annotationList.split(", ")) {
+                writer.println("    " + annotation + ";");
+            }
+        }
+
         writer.println("  }\n");
     }
 }
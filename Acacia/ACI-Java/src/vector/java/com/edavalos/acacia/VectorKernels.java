@@ -0,0 +1,110 @@
+package com.edavalos.acacia;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// The bulk numeric kernels with SIMD, working a whole vector lane at a time and finishing off the tail with plain
+// loops. Only loaded when the JVM has the jdk.incubator.vector module, see Kernels.load()
+class VectorKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, aFrom + i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, bFrom + i);
+            x.add(y).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = a[aFrom + i] + b[bFrom + i];
+        }
+    }
+
+    @Override
+    public void mul(double[] a, int aFrom, double[] b, int bFrom, double[] out, int length) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, aFrom + i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, bFrom + i);
+            x.mul(y).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = a[aFrom + i] * b[bFrom + i];
+        }
+    }
+
+    @Override
+    public void scale(double[] a, int from, double factor, double[] out, int length) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, from + i).mul(factor).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = a[from + i] * factor;
+        }
+    }
+
+    @Override
+    public double dot(double[] a, int aFrom, double[] b, int bFrom, int length) {
+        DoubleVector totals = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, aFrom + i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, b, bFrom + i);
+            totals = x.fma(y, totals);
+        }
+
+        double total = totals.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += a[aFrom + i] * b[bFrom + i];
+        }
+        return total;
+    }
+
+    @Override
+    public double sum(double[] a, int from, int length) {
+        DoubleVector totals = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            totals = totals.add(DoubleVector.fromArray(SPECIES, a, from + i));
+        }
+
+        double total = totals.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += a[from + i];
+        }
+        return total;
+    }
+
+    @Override
+    public double min(double[] a, int from, int length) {
+        DoubleVector mins = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            mins = mins.min(DoubleVector.fromArray(SPECIES, a, from + i));
+        }
+
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, a[from + i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int from, int length) {
+        DoubleVector maxes = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            maxes = maxes.max(DoubleVector.fromArray(SPECIES, a, from + i));
+        }
+
+        double max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, a[from + i]);
+        }
+        return max;
+    }
+}